@@ -0,0 +1,148 @@
+package com.lunar.stripelunar.cache;
+
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerSummary;
+import com.lunar.stripelunar.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process prefix index over normalized customer emails and names for type-ahead search.
+ * Every indexed term is stored as "term\0customerId" in a sorted map, so all customers
+ * matching a prefix form one contiguous range and a lookup never touches the database.
+ * Loaded once at startup and kept current by customer writes committed by this instance.
+ * The index is per instance: with several instances, each one only sees writes made
+ * through itself (and at its own startup), so results can differ between instances until
+ * they restart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerSearchIndex {
+
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final CustomerRepository customerRepository;
+
+    private final ConcurrentSkipListMap<String, CustomerSummary> entries = new ConcurrentSkipListMap<>();
+    // Keys currently indexed per customer, so an update can drop its stale terms
+    private final Map<String, List<String>> keysByCustomerId = new ConcurrentHashMap<>();
+    // IDs written, deletions included, before the startup load finished; null once it has.
+    // Their snapshot rows may be older than the write, so the load skips them.
+    private Set<String> writtenBeforeLoad = new HashSet<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        List<CustomerSummary> summaries = customerRepository.findAllSummaries();
+        for (CustomerSummary summary : summaries) {
+            synchronized (this) {
+                if (!writtenBeforeLoad.contains(summary.id())) {
+                    index(summary);
+                }
+            }
+        }
+        synchronized (this) {
+            writtenBeforeLoad = null;
+        }
+        log.info("Customer search index loaded with {} customers", keysByCustomerId.size());
+    }
+
+    /**
+     * Re-index committed customer writes. Deleted customers are removed from the index.
+     */
+    public synchronized void customersWritten(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            if (writtenBeforeLoad != null) {
+                writtenBeforeLoad.add(customer.getId());
+            }
+            index(CustomerSummary.from(customer));
+        }
+    }
+
+    /**
+     * Find customers whose email, full name or any word of their name starts with the query
+     *
+     * @param query Prefix to match, case-insensitive
+     * @param limit Maximum number of customers to return
+     * @return Matching customers in term order
+     */
+    public List<CustomerSummary> search(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // A customer can match through several terms, keep its first hit only
+        Map<String, CustomerSummary> matches = new LinkedHashMap<>();
+        for (Map.Entry<String, CustomerSummary> entry : entries.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            matches.putIfAbsent(entry.getValue().id(), entry.getValue());
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    public int size() {
+        return keysByCustomerId.size();
+    }
+
+    private void index(CustomerSummary summary) {
+        List<String> previousKeys = keysByCustomerId.remove(summary.id());
+        if (previousKeys != null) {
+            previousKeys.forEach(entries::remove);
+        }
+        if (Boolean.TRUE.equals(summary.deleted())) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (String term : terms(summary)) {
+            String key = term + KEY_SEPARATOR + summary.id();
+            entries.put(key, summary);
+            keys.add(key);
+        }
+        keysByCustomerId.put(summary.id(), keys);
+    }
+
+    private Set<String> terms(CustomerSummary summary) {
+        Set<String> terms = new LinkedHashSet<>();
+        String email = normalize(summary.email());
+        if (!email.isEmpty()) {
+            terms.add(email);
+        }
+        String name = normalize(summary.name());
+        if (!name.isEmpty()) {
+            terms.add(name);
+            for (String word : name.split(" ")) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+}
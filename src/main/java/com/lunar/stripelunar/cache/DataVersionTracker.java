@@ -0,0 +1,206 @@
+package com.lunar.stripelunar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.DataVersion;
+import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.repository.CustomerRepository;
+import com.lunar.stripelunar.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for the Stripe tables and the rows in them, bumped once a sync or webhook
+ * write commits. ETags derived from them let clients poll the data endpoints without the
+ * request touching the database when nothing changed.
+ *
+ * <p>Row versions are kept in bounded caches. A row this instance has neither written nor
+ * read gets no ETag, so a request for a missing id always reaches the 404. Every version
+ * handed out is at least the table's floor, which {@link #reload()} raises when the stored
+ * rows changed under another instance; tags issued before that stop matching.
+ */
+@Component
+@Slf4j
+public class DataVersionTracker {
+
+    public static final String FIELDS_FULL = "full";
+
+    // Distinguishes versions handed out before a restart, or by another instance, from these
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final CustomerRepository customerRepository;
+    private final PaymentRepository paymentRepository;
+    private final StripeEntityCache entityCache;
+
+    private final AtomicLong customersVersion = new AtomicLong();
+    private final AtomicLong paymentsVersion = new AtomicLong();
+    private volatile long customersFloor;
+    private volatile long paymentsFloor;
+    private final Cache<String, Long> customerVersions;
+    private final Cache<String, Long> paymentVersions;
+    private final Cache<String, Long> customerPaymentsVersions;
+
+    // Stored count and latest update seen by the last reload
+    private volatile DataVersion storedCustomers;
+    private volatile DataVersion storedPayments;
+
+    public DataVersionTracker(
+            CustomerRepository customerRepository,
+            PaymentRepository paymentRepository,
+            StripeEntityCache entityCache,
+            @Value("${stripe.cache.customers.maximum-size:10000}") long customersMaximumSize,
+            @Value("${stripe.cache.payments.maximum-size:50000}") long paymentsMaximumSize,
+            @Value("${stripe.cache.customer-payments.maximum-size:5000}") long customerPaymentsMaximumSize) {
+        this.customerRepository = customerRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityCache = entityCache;
+        this.customerVersions = Caffeine.newBuilder().maximumSize(customersMaximumSize).build();
+        this.paymentVersions = Caffeine.newBuilder().maximumSize(paymentsMaximumSize).build();
+        this.customerPaymentsVersions = Caffeine.newBuilder().maximumSize(customerPaymentsMaximumSize).build();
+    }
+
+    /**
+     * Record committed customer writes
+     */
+    public void customersWritten(Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        long version = customersVersion.incrementAndGet();
+        for (Customer customer : customers) {
+            customerVersions.put(customer.getId(), version);
+        }
+    }
+
+    /**
+     * Record committed payment writes, including the by-customer lists they appear in
+     *
+     * @param payments Payments just committed
+     * @param previousOwners Customer each already existing payment was stored under before the write
+     */
+    public void paymentsWritten(Collection<Payment> payments, Map<String, String> previousOwners) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        long version = paymentsVersion.incrementAndGet();
+        for (Payment payment : payments) {
+            paymentVersions.put(payment.getId(), version);
+            String previousOwner = previousOwners.get(payment.getId());
+            if (previousOwner != null) {
+                customerPaymentsVersions.put(previousOwner, version);
+            }
+            if (payment.getCustomerId() != null) {
+                customerPaymentsVersions.put(payment.getCustomerId(), version);
+            }
+        }
+    }
+
+    /**
+     * Current customer table version; read it before loading a customer and pass it to
+     * {@link #customerFound}
+     */
+    public long customersVersion() {
+        return customersVersion.get();
+    }
+
+    public long paymentsVersion() {
+        return paymentsVersion.get();
+    }
+
+    /**
+     * Start handing out ETags for a customer that was just read. Entries written since the
+     * load started are kept, as they are newer than the version read before it.
+     */
+    public void customerFound(String customerId, long versionBeforeLoad) {
+        customerVersions.asMap().putIfAbsent(customerId, versionBeforeLoad);
+    }
+
+    public void paymentFound(String paymentId, long versionBeforeLoad) {
+        paymentVersions.asMap().putIfAbsent(paymentId, versionBeforeLoad);
+    }
+
+    /**
+     * ETag for the customer list in the representation selected by the fields parameter
+     */
+    public String customersETag(String fields) {
+        return etag("customers" + variant(fields), customersVersion.get());
+    }
+
+    /**
+     * ETag for the payment list in the representation selected by the fields parameter
+     */
+    public String paymentsETag(String fields) {
+        return etag("payments" + variant(fields), paymentsVersion.get());
+    }
+
+    /**
+     * ETag for one customer, or null while this instance does not know the customer exists
+     */
+    public String customerETag(String customerId) {
+        Long version = customerVersions.getIfPresent(customerId);
+        return version != null ? etag("customer", Math.max(version, customersFloor)) : null;
+    }
+
+    /**
+     * ETag for one payment, or null while this instance does not know the payment exists
+     */
+    public String paymentETag(String paymentId) {
+        Long version = paymentVersions.getIfPresent(paymentId);
+        return version != null ? etag("payment", Math.max(version, paymentsFloor)) : null;
+    }
+
+    /**
+     * ETag for the payments of a customer. A payment that moves to another customer
+     * changes the lists of both its previous and its new owner. A list whose version was
+     * evicted falls back to the table version, which is never older.
+     */
+    public String customerPaymentsETag(String customerId, String fields) {
+        Long version = customerPaymentsVersions.getIfPresent(customerId);
+        return etag("customer-payments" + variant(fields),
+                Math.max(version != null ? version : paymentsVersion.get(), paymentsFloor));
+    }
+
+    /**
+     * Compare each table's stored count and latest update with the last reload. When they
+     * moved, another instance (or this one) wrote to the table: every version of it is raised
+     * to a new floor and the entity cache drops its copies, so no stale tag or body survives
+     * longer than one reload interval. Runs off the request path.
+     */
+    @Scheduled(fixedDelayString = "${stripe.etag.reload-ms:30000}")
+    public void reload() {
+        try {
+            DataVersion customers = customerRepository.findDataVersion();
+            if (storedCustomers != null && !Objects.equals(storedCustomers, customers)) {
+                entityCache.customersChanged();
+                customersFloor = customersVersion.incrementAndGet();
+            }
+            storedCustomers = customers;
+
+            DataVersion payments = paymentRepository.findDataVersion();
+            if (storedPayments != null && !Objects.equals(storedPayments, payments)) {
+                entityCache.paymentsChanged();
+                paymentsFloor = paymentsVersion.incrementAndGet();
+            }
+            storedPayments = payments;
+        } catch (DataAccessException e) {
+            log.warn("Could not reload stored data versions: {}", e.getMessage());
+        }
+    }
+
+    private String variant(String fields) {
+        return FIELDS_FULL.equals(fields) ? "-full" : "";
+    }
+
+    private String etag(String resource, long version) {
+        return "\"" + epoch + "-" + resource + "-" + version + "\"";
+    }
+}
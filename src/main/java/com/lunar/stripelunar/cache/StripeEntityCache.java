@@ -0,0 +1,238 @@
+package com.lunar.stripelunar.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lunar.stripelunar.jfr.CacheLoadEvent;
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.Payment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache in front of the customer and payment lookups.
+ * Caffeine's W-TinyLFU admission keeps the customers our dashboards poll
+ * resident while one-off lookups are the first to be evicted.
+ *
+ * <p>Customer and Payment are mutable JPA entities, so the cache keeps its own copies: a
+ * copy is stored when a value is loaded or written, and every read returns a fresh copy.
+ * A caller changing an entity it got from the cache, or one it handed to it, never
+ * changes what other callers read.
+ */
+@Component
+@Slf4j
+public class StripeEntityCache implements MeterBinder {
+
+    private final Cache<String, Customer> customers;
+    private final Cache<String, Payment> payments;
+    private final Cache<String, List<Payment>> customerPayments;
+
+    public StripeEntityCache(
+            @Value("${stripe.cache.customers.maximum-size:10000}") long customersMaximumSize,
+            @Value("${stripe.cache.payments.maximum-size:50000}") long paymentsMaximumSize,
+            @Value("${stripe.cache.customer-payments.maximum-size:5000}") long customerPaymentsMaximumSize,
+            @Value("${stripe.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.customers = buildCache(customersMaximumSize, expireAfterWrite);
+        this.payments = buildCache(paymentsMaximumSize, expireAfterWrite);
+        this.customerPayments = buildCache(customerPaymentsMaximumSize, expireAfterWrite);
+        log.info("Entity cache configured: customers={}, payments={}, customerPayments={}, expireAfterWrite={}",
+                customersMaximumSize, paymentsMaximumSize, customerPaymentsMaximumSize, expireAfterWrite);
+    }
+
+    private static <V> Cache<String, V> buildCache(long maximumSize, Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a customer, loading it on a miss. A loader returning null is not cached.
+     */
+    public Customer getCustomer(String customerId, Function<String, Customer> loader) {
+        return copyOf(customers.get(customerId,
+                id -> recordLoad("customers", 1, () -> copyOf(loader.apply(id)), value -> value != null ? 1 : 0)));
+    }
+
+    /**
+     * Get a payment, loading it on a miss. A loader returning null is not cached.
+     */
+    public Payment getPayment(String paymentId, Function<String, Payment> loader) {
+        return copyOf(payments.get(paymentId,
+                id -> recordLoad("payments", 1, () -> copyOf(loader.apply(id)), value -> value != null ? 1 : 0)));
+    }
+
+    /**
+     * Get several customers, loading every miss with one call. Ids the loader does not return are not cached.
+     */
+    public Map<String, Customer> getCustomers(Collection<String> customerIds,
+                                              Function<Set<? extends String>, Map<String, Customer>> loader) {
+        Map<String, Customer> cached = customers.getAll(customerIds, missing -> recordLoad("customers", missing.size(),
+                () -> copyValues(loader.apply(missing), StripeEntityCache::copyOf), Map::size));
+        return copyValues(cached, StripeEntityCache::copyOf);
+    }
+
+    /**
+     * Get several payments, loading every miss with one call. Ids the loader does not return are not cached.
+     */
+    public Map<String, Payment> getPayments(Collection<String> paymentIds,
+                                            Function<Set<? extends String>, Map<String, Payment>> loader) {
+        Map<String, Payment> cached = payments.getAll(paymentIds, missing -> recordLoad("payments", missing.size(),
+                () -> copyValues(loader.apply(missing), StripeEntityCache::copyOf), Map::size));
+        return copyValues(cached, StripeEntityCache::copyOf);
+    }
+
+    /**
+     * Get the payments of a customer, loading them on a miss.
+     */
+    public List<Payment> getPaymentsByCustomer(String customerId, Function<String, List<Payment>> loader) {
+        return copyAll(customerPayments.get(customerId,
+                id -> recordLoad("customerPayments", 1, () -> copyAll(loader.apply(id)), value -> value != null ? value.size() : 0)));
+    }
+
+    /**
+     * Run a cache loader inside a JFR CacheLoadEvent
+     */
+    private static <V> V recordLoad(String cache, int keysRequested, Supplier<V> load, ToIntFunction<V> entriesLoaded) {
+        CacheLoadEvent event = new CacheLoadEvent();
+        event.begin();
+        V value = load.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.keysRequested = keysRequested;
+            event.entriesLoaded = entriesLoaded.applyAsInt(value);
+            event.commit();
+        }
+        return value;
+    }
+
+    /**
+     * Refresh cached customers with freshly written state.
+     */
+    public void customersWritten(Collection<Customer> writtenCustomers) {
+        for (Customer customer : writtenCustomers) {
+            customers.put(customer.getId(), copyOf(customer));
+        }
+    }
+
+    /**
+     * Refresh cached payments with freshly written state and drop the by-customer lists
+     * they belong to. A payment that moved is also dropped from its previous owner's list;
+     * the owner comes from the database, as the payment itself may never have been cached.
+     *
+     * @param writtenPayments Payments just committed
+     * @param previousOwners Customer each already existing payment was stored under before the write
+     */
+    public void paymentsWritten(Collection<Payment> writtenPayments, Map<String, String> previousOwners) {
+        for (Payment payment : writtenPayments) {
+            String previousOwner = previousOwners.get(payment.getId());
+            if (previousOwner != null && !previousOwner.equals(payment.getCustomerId())) {
+                customerPayments.invalidate(previousOwner);
+            }
+            payments.put(payment.getId(), copyOf(payment));
+            if (payment.getCustomerId() != null) {
+                customerPayments.invalidate(payment.getCustomerId());
+            }
+        }
+    }
+
+    /**
+     * Drop every cached customer after the table changed under another instance
+     */
+    public void customersChanged() {
+        customers.invalidateAll();
+    }
+
+    /**
+     * Drop every cached payment and by-customer list after the table changed under another instance
+     */
+    public void paymentsChanged() {
+        payments.invalidateAll();
+        customerPayments.invalidateAll();
+    }
+
+    private static Customer copyOf(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        return new Customer(customer.getId(), customer.getEmail(), customer.getName(), customer.getDescription(),
+                customer.getCreatedDate(), customer.getUpdatedDate(), customer.getMetadata(), customer.getDeleted());
+    }
+
+    private static Payment copyOf(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        return new Payment(payment.getId(), payment.getCustomerId(), payment.getAmount(), payment.getCurrency(),
+                payment.getStatus(), payment.getDescription(), payment.getCreatedDate(), payment.getUpdatedDate(),
+                payment.getMetadata());
+    }
+
+    private static List<Payment> copyAll(List<Payment> list) {
+        if (list == null) {
+            return null;
+        }
+        List<Payment> copies = new ArrayList<>(list.size());
+        list.forEach(payment -> copies.add(copyOf(payment)));
+        return copies;
+    }
+
+    private static <V> Map<String, V> copyValues(Map<String, V> map, UnaryOperator<V> copy) {
+        Map<String, V> copies = new HashMap<>(map.size() * 2);
+        map.forEach((key, value) -> copies.put(key, copy.apply(value)));
+        return copies;
+    }
+
+    /**
+     * Publish hit, miss, eviction and size meters for every cache, tagged by cache name
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, customers, "customers");
+        CaffeineCacheMetrics.monitor(registry, payments, "payments");
+        CaffeineCacheMetrics.monitor(registry, customerPayments, "customerPayments");
+    }
+
+    /**
+     * Hit, miss and eviction statistics for every cache
+     *
+     * @return Map keyed by cache name
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("customers", describe(customers));
+        statistics.put("payments", describe(payments));
+        statistics.put("customerPayments", describe(customerPayments));
+        return statistics;
+    }
+
+    private Map<String, Object> describe(Cache<String, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new HashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hitCount", stats.hitCount());
+        description.put("missCount", stats.missCount());
+        description.put("hitRate", stats.hitRate());
+        description.put("evictionCount", stats.evictionCount());
+        description.put("loadFailureCount", stats.loadFailureCount());
+        return description;
+    }
+}
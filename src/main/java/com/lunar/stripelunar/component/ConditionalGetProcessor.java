@@ -0,0 +1,74 @@
+package com.lunar.stripelunar.component;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers conditional GETs. Routes put the current ETag of the requested resource in
+ * the {@link #ETAG_PROPERTY} exchange property before this processor; when it matches
+ * the client's If-None-Match header the route stops with 304 Not Modified before any
+ * database access or serialization happens. A route that has no ETag for the resource,
+ * for instance an id not known to exist, leaves the property null and always continues.
+ *
+ * <p>The tag sent is weak and names the negotiated media type, so JSON, pretty JSON, Smile
+ * and CBOR bodies never share a validator; gzip and deflate codings of one body do, which
+ * weak comparison allows. Vary lists the request headers that select the representation.
+ */
+@Component
+@Slf4j
+public class ConditionalGetProcessor implements Processor {
+
+    public static final String ETAG_PROPERTY = "etag";
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        String version = exchange.getProperty(ETAG_PROPERTY, String.class);
+        if (version == null) {
+            return;
+        }
+
+        Message in = exchange.getIn();
+        String etag = "W/" + version.substring(0, version.length() - 1) + "-"
+                + ResponseEncodingProcessor.representation(in) + "\"";
+        String ifNoneMatch = in.getHeader(HttpHeaders.IF_NONE_MATCH, String.class);
+        in.setHeader(HttpHeaders.ETAG, etag);
+
+        if (matches(ifNoneMatch, etag)) {
+            log.debug("Resource unchanged for ETag {}, answering 304", etag);
+            // Request headers are echoed back by the servlet binding, so drop them here
+            in.removeHeader(HttpHeaders.IF_NONE_MATCH);
+            in.removeHeader(HttpHeaders.ACCEPT);
+            in.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+            in.removeHeader("pretty");
+            in.setHeader(HttpHeaders.VARY, ResponseEncodingProcessor.VARY);
+            in.setHeader(Exchange.HTTP_RESPONSE_CODE, 304);
+            in.setBody(null);
+            exchange.setRouteStop(true);
+        }
+    }
+
+    /**
+     * Weak comparison, as If-None-Match uses: the W/ prefix is ignored on both sides
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaque(candidate.trim());
+            if (tag.equals("*") || tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,24 +1,48 @@
 package com.lunar.stripelunar.component;
 
+import com.lunar.stripelunar.util.RollingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 @Slf4j
-public class ETLMetricsProcessor implements Processor {
+public class ETLMetricsProcessor implements Processor, MeterBinder {
 
     @Getter
     private final Map<String, ETLOperationMetrics> metricsMap = new ConcurrentHashMap<>();
 
+    // Bound by Spring Boot's metrics auto-configuration; null until then, e.g. in unit tests
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    /**
+     * Publish the operation's metrics so far on the exchange. Executions are counted by
+     * recordCompletion, which runs once per attempt whichever route started it, so the
+     * execution count always equals the success count plus the failure count.
+     */
     @Override
     public void process(Exchange exchange) throws Exception {
         String operation = exchange.getIn().getHeader("operation", String.class);
@@ -28,8 +52,6 @@ public class ETLMetricsProcessor implements Processor {
         }
         
         ETLOperationMetrics metrics = metricsMap.computeIfAbsent(operation, k -> new ETLOperationMetrics());
-        metrics.incrementCount();
-        metrics.setLastExecutionTime(LocalDateTime.now());
         
         // Add metrics to exchange for potential use downstream
         Map<String, Object> metricsData = new HashMap<>();
@@ -39,10 +61,44 @@ public class ETLMetricsProcessor implements Processor {
         
         exchange.setProperty("etlMetrics", metricsData);
         
-        log.debug("ETL operation '{}' metrics updated: count={}, lastExecution={}", 
+        log.debug("ETL operation '{}' metrics so far: count={}, lastExecution={}", 
                 operation, metrics.getExecutionCount(), metrics.getLastExecutionTime());
     }
     
+    /**
+     * Count one execution of an ETL operation and record its outcome. Called by
+     * StripeETLProcessor once the whole operation, including job tracking, has finished.
+     *
+     * @param operation Operation name
+     * @param durationNanos Wall-clock duration of the operation
+     * @param success Whether the operation completed without an exception
+     * @param recordsProcessed Number of records the operation synced
+     */
+    public void recordCompletion(String operation, long durationNanos, boolean success, long recordsProcessed) {
+        ETLOperationMetrics metrics = metricsMap.computeIfAbsent(operation, k -> new ETLOperationMetrics());
+        metrics.incrementCount();
+        metrics.setLastExecutionTime(LocalDateTime.now().minusNanos(Math.max(durationNanos, 0)));
+        metrics.recordCompletion(durationNanos, success, recordsProcessed);
+        
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            Timer.builder("etl.operation.duration")
+                    .description("Duration of ETL operations including job tracking")
+                    .tags("operation", operation, "outcome", success ? "success" : "failure")
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+            Counter.builder("etl.records.processed")
+                    .description("Records synced by ETL operations")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .increment(recordsProcessed);
+        }
+        
+        log.debug("ETL operation '{}' completed: success={}, durationMs={}, records={}",
+                operation, success, TimeUnit.NANOSECONDS.toMillis(durationNanos), recordsProcessed);
+    }
+    
     public Map<String, Object> getAllMetrics() {
         Map<String, Object> result = new HashMap<>();
         
@@ -50,6 +106,13 @@ public class ETLMetricsProcessor implements Processor {
             Map<String, Object> operationMetrics = new HashMap<>();
             operationMetrics.put("executionCount", metrics.getExecutionCount());
             operationMetrics.put("lastExecutionTime", metrics.getLastExecutionTime());
+            operationMetrics.put("successCount", metrics.getSuccessCount());
+            operationMetrics.put("failureCount", metrics.getFailureCount());
+            operationMetrics.put("recordsProcessed", metrics.getRecordsProcessed());
+            operationMetrics.put("recordsPerSecond", metrics.getRecordsPerSecond());
+            operationMetrics.put("executionsPerMinute", metrics.getExecutionsPerMinute());
+            operationMetrics.put("recentRecordsPerSecond", metrics.getRecentRecordsPerSecond());
+            operationMetrics.put("latencyMs", metrics.getLatencySnapshot());
             result.put(operation, operationMetrics);
         });
         
@@ -57,11 +120,33 @@ public class ETLMetricsProcessor implements Processor {
     }
     
     public static class ETLOperationMetrics {
-        private final AtomicLong executionCount = new AtomicLong(0);
-        private LocalDateTime lastExecutionTime;
+        private static final Duration WINDOW_SPAN = Duration.ofMinutes(15);
+        private static final Duration WINDOW_BUCKET = Duration.ofSeconds(5);
+        private static final Map<String, Duration> RATE_WINDOWS = rateWindows();
         
-        public AtomicLong getExecutionCount() {
-            return executionCount;
+        // Striped counters: exchanges on many Camel threads update them without contending on one cache line
+        private final LongAdder executionCount = new LongAdder();
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+        private final LongAdder recordsProcessed = new LongAdder();
+        private final LongAdder totalDurationNanos = new LongAdder();
+        private final RollingWindowCounter recentExecutions = new RollingWindowCounter(WINDOW_SPAN, WINDOW_BUCKET);
+        private final RollingWindowCounter recentRecords = new RollingWindowCounter(WINDOW_SPAN, WINDOW_BUCKET);
+        // LocalDateTime is immutable, so a volatile write publishes it safely to readers on other threads
+        private volatile LocalDateTime lastExecutionTime;
+        // Auto-resizing, so a stuck sync can never overflow it; 3 significant digits is 0.1% precision
+        private final ConcurrentHistogram latencyMillis = new ConcurrentHistogram(3);
+        
+        private static Map<String, Duration> rateWindows() {
+            Map<String, Duration> windows = new LinkedHashMap<>();
+            windows.put("1m", Duration.ofMinutes(1));
+            windows.put("5m", Duration.ofMinutes(5));
+            windows.put("15m", WINDOW_SPAN);
+            return Collections.unmodifiableMap(windows);
+        }
+        
+        public long getExecutionCount() {
+            return executionCount.sum();
         }
         
         public LocalDateTime getLastExecutionTime() {
@@ -69,11 +154,76 @@ public class ETLMetricsProcessor implements Processor {
         }
         
         public void incrementCount() {
-            executionCount.incrementAndGet();
+            executionCount.increment();
+            recentExecutions.add(1);
         }
         
         public void setLastExecutionTime(LocalDateTime time) {
             this.lastExecutionTime = time;
         }
+        
+        public long getSuccessCount() {
+            return successCount.sum();
+        }
+        
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+        
+        public long getRecordsProcessed() {
+            return recordsProcessed.sum();
+        }
+        
+        public void recordCompletion(long durationNanos, boolean success, long records) {
+            long nanos = Math.max(durationNanos, 0);
+            latencyMillis.recordValue(TimeUnit.NANOSECONDS.toMillis(nanos));
+            totalDurationNanos.add(nanos);
+            recordsProcessed.add(records);
+            recentRecords.add(records);
+            (success ? successCount : failureCount).increment();
+        }
+        
+        /**
+         * Records synced per second of time spent inside the operation
+         */
+        public double getRecordsPerSecond() {
+            long nanos = totalDurationNanos.sum();
+            return nanos == 0 ? 0.0 : recordsProcessed.sum() * 1_000_000_000.0 / nanos;
+        }
+        
+        /**
+         * Executions finished per minute over the last 1, 5 and 15 minutes
+         */
+        public Map<String, Double> getExecutionsPerMinute() {
+            long now = System.currentTimeMillis();
+            Map<String, Double> rates = new LinkedHashMap<>();
+            RATE_WINDOWS.forEach((name, window) -> rates.put(name, recentExecutions.ratePerSecond(window, now) * 60));
+            return rates;
+        }
+        
+        /**
+         * Records synced per second of wall-clock time over the last 1, 5 and 15 minutes
+         */
+        public Map<String, Double> getRecentRecordsPerSecond() {
+            long now = System.currentTimeMillis();
+            Map<String, Double> rates = new LinkedHashMap<>();
+            RATE_WINDOWS.forEach((name, window) -> rates.put(name, recentRecords.ratePerSecond(window, now)));
+            return rates;
+        }
+        
+        /**
+         * Latency percentiles in milliseconds over every completed execution
+         */
+        public Map<String, Object> getLatencySnapshot() {
+            Histogram snapshot = latencyMillis.copy();
+            Map<String, Object> latency = new HashMap<>();
+            latency.put("count", snapshot.getTotalCount());
+            latency.put("p50", snapshot.getValueAtPercentile(50));
+            latency.put("p90", snapshot.getValueAtPercentile(90));
+            latency.put("p99", snapshot.getValueAtPercentile(99));
+            latency.put("max", snapshot.getMaxValue());
+            latency.put("mean", snapshot.getMean());
+            return latency;
+        }
     }
 }
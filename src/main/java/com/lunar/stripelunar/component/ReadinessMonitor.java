@@ -0,0 +1,88 @@
+package com.lunar.stripelunar.component;
+
+import com.lunar.stripelunar.service.StripeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps a background-refreshed snapshot of database connectivity and row counts for the
+ * readiness probe. Probes only read the snapshot; connectivity is a driver ping and the
+ * counts come from StripeService, which reloads them with COUNT(*) every
+ * {@code stripe.count-refresh-ms} and adds committed sync inserts in between. The scans
+ * run on that schedule, never on a probe.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadinessMonitor {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Tolerate a couple of missed refreshes before the snapshot is treated as stale
+    private static final int STALE_AFTER_TTLS = 3;
+
+    private final DataSource dataSource;
+    private final StripeService stripeService;
+
+    @Value("${health.readiness.ttl-ms:15000}")
+    private long ttlMillis = 15000;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Result of the last refresh
+     */
+    public record Snapshot(boolean databaseUp, long databaseLatencyMillis, long customerCount,
+                           long paymentCount, Instant checkedAt, String error) {
+    }
+
+    @Scheduled(fixedDelayString = "${health.readiness.ttl-ms:15000}")
+    public void refresh() {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                snapshot = down(start, "Connection validation failed");
+                return;
+            }
+            snapshot = new Snapshot(true, elapsedMillis(start), stripeService.countCustomers(),
+                    stripeService.countPayments(), Instant.now(), null);
+        } catch (Exception e) {
+            log.warn("Readiness check failed: {}", e.getMessage());
+            snapshot = down(start, e.getMessage());
+        }
+    }
+
+    /**
+     * The latest snapshot, or null before the first refresh has completed
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Ready when the database answered the last refresh and that refresh is recent enough
+     */
+    public boolean isReady() {
+        Snapshot current = snapshot;
+        return current != null && current.databaseUp() && !isStale(current);
+    }
+
+    public boolean isStale(Snapshot current) {
+        return Duration.between(current.checkedAt(), Instant.now()).toMillis() > ttlMillis * STALE_AFTER_TTLS;
+    }
+
+    private Snapshot down(long start, String error) {
+        return new Snapshot(false, elapsedMillis(start), -1, -1, Instant.now(), error);
+    }
+
+    private long elapsedMillis(long start) {
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+}
@@ -0,0 +1,133 @@
+package com.lunar.stripelunar.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lunar.stripelunar.util.ContentNegotiationUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes REST responses in the encoding the client asked for. Compact JSON is the
+ * default, Smile or CBOR are chosen by the Accept header and pretty=true indents JSON.
+ * Bodies above the compression threshold are gzip or deflate compressed here when the client
+ * accepts it, since nothing further down the servlet response compresses them.
+ */
+@Component
+@Slf4j
+public class ResponseEncodingProcessor implements Processor {
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR = "application/cbor";
+    // Response headers naming the request headers that select the representation
+    public static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter prettyJsonWriter;
+    private final ObjectWriter smileWriter;
+    private final ObjectWriter cborWriter;
+    private final int compressionThreshold;
+
+    public ResponseEncodingProcessor(ObjectMapper objectMapper,
+                                     @Value("${stripe.response.compression-threshold:2048}") int compressionThreshold) {
+        this.jsonWriter = objectMapper.writer();
+        this.prettyJsonWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.smileWriter = objectMapper.copyWith(new SmileFactory()).writer();
+        this.cborWriter = objectMapper.copyWith(new CBORFactory()).writer();
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        Message message = exchange.getMessage();
+        String accept = message.getHeader(HttpHeaders.ACCEPT, String.class);
+        String acceptEncoding = message.getHeader(HttpHeaders.ACCEPT_ENCODING, String.class);
+        boolean pretty = message.getHeader("pretty", false, Boolean.class);
+        // Request headers are echoed back by the servlet binding, so drop them here
+        message.removeHeader(HttpHeaders.ACCEPT);
+        message.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+        message.removeHeader(HttpHeaders.IF_NONE_MATCH);
+        message.removeHeader("pretty");
+        message.setHeader(HttpHeaders.VARY, VARY);
+
+        Object body = message.getBody();
+        if (body == null) {
+            return;
+        }
+
+        String contentType = contentType(accept);
+        byte[] encoded;
+        if (APPLICATION_SMILE.equals(contentType)) {
+            encoded = smileWriter.writeValueAsBytes(body);
+        } else if (APPLICATION_CBOR.equals(contentType)) {
+            encoded = cborWriter.writeValueAsBytes(body);
+        } else {
+            encoded = (pretty ? prettyJsonWriter : jsonWriter).writeValueAsBytes(body);
+        }
+
+        message.setHeader(Exchange.CONTENT_TYPE, contentType);
+
+        if (encoded.length >= compressionThreshold) {
+            if (ContentNegotiationUtil.accepts(acceptEncoding, "gzip")) {
+                message.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                encoded = gzip(encoded);
+            } else if (ContentNegotiationUtil.accepts(acceptEncoding, "deflate")) {
+                message.setHeader(HttpHeaders.CONTENT_ENCODING, "deflate");
+                encoded = deflate(encoded);
+            }
+        }
+        message.setBody(encoded);
+    }
+
+    /**
+     * Media type a body is encoded as for the given Accept header
+     */
+    static String contentType(String accept) {
+        if (ContentNegotiationUtil.accepts(accept, APPLICATION_SMILE)) {
+            return APPLICATION_SMILE;
+        }
+        if (ContentNegotiationUtil.accepts(accept, APPLICATION_CBOR)) {
+            return APPLICATION_CBOR;
+        }
+        return MediaType.APPLICATION_JSON_VALUE;
+    }
+
+    /**
+     * Short name of the representation a request negotiates, used to keep ETags of
+     * different encodings of the same data apart
+     */
+    static String representation(Message message) {
+        String contentType = contentType(message.getHeader(HttpHeaders.ACCEPT, String.class));
+        String subtype = contentType.substring(contentType.indexOf('/') + 1);
+        boolean pretty = message.getHeader("pretty", false, Boolean.class);
+        return MediaType.APPLICATION_JSON_VALUE.equals(contentType) && pretty ? subtype + "-pretty" : subtype;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(buffer)) {
+            deflater.write(data);
+        }
+        return buffer.toByteArray();
+    }
+}
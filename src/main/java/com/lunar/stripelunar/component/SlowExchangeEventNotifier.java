@@ -0,0 +1,47 @@
+package com.lunar.stripelunar.component;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.spi.CamelEvent.ExchangeEvent;
+import org.apache.camel.support.EventNotifierSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds exchange start and completion to SlowOperationSampler. Camel Spring Boot
+ * registers EventNotifier beans with the CamelContext automatically.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowExchangeEventNotifier extends EventNotifierSupport {
+
+    private final SlowOperationSampler slowOperationSampler;
+
+    @Override
+    public boolean isEnabled(CamelEvent event) {
+        return event.getType() == CamelEvent.Type.ExchangeCreated
+                || event.getType() == CamelEvent.Type.ExchangeCompleted
+                || event.getType() == CamelEvent.Type.ExchangeFailed;
+    }
+
+    @Override
+    public void notify(CamelEvent event) {
+        ExchangeEvent exchangeEvent = (ExchangeEvent) event;
+        if (event.getType() == CamelEvent.Type.ExchangeCreated) {
+            slowOperationSampler.exchangeStarted(exchangeEvent.getExchange());
+        } else {
+            slowOperationSampler.exchangeFinished(exchangeEvent.getExchange());
+        }
+    }
+
+    @Override
+    protected void doInit() throws Exception {
+        // Only exchange lifecycle events are of interest
+        setIgnoreCamelContextEvents(true);
+        setIgnoreRouteEvents(true);
+        setIgnoreServiceEvents(true);
+        setIgnoreStepEvents(true);
+        setIgnoreExchangeSendingEvents(true);
+        setIgnoreExchangeSentEvents(true);
+        setIgnoreExchangeRedeliveryEvents(true);
+    }
+}
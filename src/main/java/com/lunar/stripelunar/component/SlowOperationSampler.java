@@ -0,0 +1,232 @@
+package com.lunar.stripelunar.component;
+
+import com.lunar.stripelunar.service.SyncJobContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures context for Camel exchanges and repository calls that exceed the latency
+ * threshold: operation, job ID, Stripe request IDs, repository call timings and stack
+ * samples of the thread while it is still running. Captures go into a bounded ring,
+ * newest first, exposed by the slowoperations actuator endpoint.
+ */
+@Component
+@Slf4j
+public class SlowOperationSampler implements RepositoryMethodInvocationListener {
+
+    private static final int MAX_STATEMENTS = 50;
+    private static final int MAX_STACK_SAMPLES = 10;
+    private static final int MAX_STACK_DEPTH = 40;
+
+    public record StatementTiming(String statement, long durationMillis, String outcome) {
+    }
+
+    public record SlowOperation(String kind, String name, String operation, Long jobId, String thread,
+                                Instant startedAt, long durationMillis, boolean failed,
+                                List<String> stripeRequestIds, List<StatementTiming> statements,
+                                List<List<String>> stackSamples) {
+    }
+
+    private final long thresholdNanos;
+    private final long sampleIntervalMillis;
+    private final int capacity;
+    private final Deque<SlowOperation> recent = new ArrayDeque<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // Exchange running on each thread. Not a ThreadLocal: an async exchange can finish on another
+    // thread, and its entry must still be cleared from the thread that started it.
+    private final Map<Thread, InFlight> byThread = new ConcurrentHashMap<>();
+    private ScheduledExecutorService stackSampler;
+
+    public SlowOperationSampler(@Value("${stripe.slow-operations.threshold-ms:5000}") long thresholdMillis,
+                                @Value("${stripe.slow-operations.sample-interval-ms:1000}") long sampleIntervalMillis,
+                                @Value("${stripe.slow-operations.capacity:50}") int capacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleIntervalMillis = sampleIntervalMillis;
+        this.capacity = capacity;
+    }
+
+    @PostConstruct
+    public void start() {
+        stackSampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slow-operation-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stackSampler.scheduleWithFixedDelay(this::sampleStacks, sampleIntervalMillis, sampleIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stackSampler != null) {
+            stackSampler.shutdownNow();
+        }
+    }
+
+    public void exchangeStarted(Exchange exchange) {
+        Thread thread = Thread.currentThread();
+        InFlight entry = new InFlight(thread, byThread.get(thread));
+        inFlight.put(exchange.getExchangeId(), entry);
+        byThread.put(thread, entry);
+    }
+
+    public void exchangeFinished(Exchange exchange) {
+        InFlight entry = inFlight.remove(exchange.getExchangeId());
+        if (entry == null) {
+            return;
+        }
+        release(entry);
+        long durationNanos = System.nanoTime() - entry.startNanos;
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        SyncJobContext job = exchange.getProperty(SyncJobContext.EXCHANGE_PROPERTY, SyncJobContext.class);
+        record(new SlowOperation(
+                "exchange",
+                exchange.getFromRouteId(),
+                exchange.getIn().getHeader("operation", String.class),
+                exchange.getProperty("etlJobId", Long.class),
+                entry.thread.getName(),
+                entry.startedAt,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                exchange.isFailed() || exchange.getProperty(Exchange.EXCEPTION_CAUGHT) != null,
+                job != null ? job.stripeRequestIds() : List.of(),
+                entry.statements(),
+                entry.stackSamples()));
+    }
+
+    /**
+     * Every repository call inside an exchange is timed onto that exchange; a slow call
+     * outside any exchange, such as one from a scheduler, is captured on its own.
+     */
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        String statement = invocation.getRepositoryInterface().getSimpleName() + "." + invocation.getMethod().getName();
+        long durationNanos = invocation.getDuration(TimeUnit.NANOSECONDS);
+        String outcome = invocation.getResult() != null ? invocation.getResult().getState().name() : "UNKNOWN";
+        StatementTiming timing = new StatementTiming(statement, TimeUnit.NANOSECONDS.toMillis(durationNanos), outcome);
+
+        InFlight entry = byThread.get(Thread.currentThread());
+        if (entry != null) {
+            entry.addStatement(timing);
+        } else if (durationNanos >= thresholdNanos) {
+            Thread thread = Thread.currentThread();
+            record(new SlowOperation(
+                    "repository",
+                    statement,
+                    null,
+                    null,
+                    thread.getName(),
+                    Instant.now().minusNanos(durationNanos),
+                    timing.durationMillis(),
+                    !"SUCCESS".equals(outcome),
+                    List.of(),
+                    List.of(timing),
+                    List.of(frames(thread.getStackTrace()))));
+        }
+    }
+
+    /**
+     * Captured slow operations, newest first
+     */
+    public List<SlowOperation> getRecent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    void sampleStacks() {
+        long now = System.nanoTime();
+        inFlight.values().forEach(entry -> {
+            if (now - entry.startNanos >= thresholdNanos) {
+                entry.addStackSample(frames(entry.thread.getStackTrace()));
+            }
+        });
+    }
+
+    int threadsWithExchange() {
+        return byThread.size();
+    }
+
+    // Hands the starting thread back to the innermost enclosing exchange still running, whichever thread finishes
+    private void release(InFlight entry) {
+        InFlight outer = entry.outer;
+        while (outer != null && !inFlight.containsValue(outer)) {
+            outer = outer.outer;
+        }
+        if (outer != null) {
+            byThread.replace(entry.thread, entry, outer);
+        } else {
+            byThread.remove(entry.thread, entry);
+        }
+    }
+
+    private void record(SlowOperation operation) {
+        log.warn("Slow {} {} took {} ms (operation={}, jobId={})", operation.kind(), operation.name(),
+                operation.durationMillis(), operation.operation(), operation.jobId());
+        synchronized (recent) {
+            if (recent.size() == capacity) {
+                recent.removeLast();
+            }
+            recent.addFirst(operation);
+        }
+    }
+
+    private static List<String> frames(StackTraceElement[] stack) {
+        return Arrays.stream(stack)
+                .limit(MAX_STACK_DEPTH)
+                .map(StackTraceElement::toString)
+                .toList();
+    }
+
+    private static final class InFlight {
+        final Thread thread;
+        final InFlight outer;
+        final long startNanos = System.nanoTime();
+        final Instant startedAt = Instant.now();
+        private final List<StatementTiming> statements = new ArrayList<>();
+        private final List<List<String>> stackSamples = new ArrayList<>();
+
+        InFlight(Thread thread, InFlight outer) {
+            this.thread = thread;
+            this.outer = outer;
+        }
+
+        synchronized void addStatement(StatementTiming timing) {
+            if (statements.size() < MAX_STATEMENTS) {
+                statements.add(timing);
+            }
+        }
+
+        synchronized void addStackSample(List<String> frames) {
+            if (stackSamples.size() < MAX_STACK_SAMPLES) {
+                stackSamples.add(frames);
+            }
+        }
+
+        synchronized List<StatementTiming> statements() {
+            return List.copyOf(statements);
+        }
+
+        synchronized List<List<String>> stackSamples() {
+            return List.copyOf(stackSamples);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.lunar.stripelunar.component;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/slowoperations: the slow exchanges and repository calls captured by SlowOperationSampler
+ */
+@Component
+@Endpoint(id = "slowoperations")
+@RequiredArgsConstructor
+public class SlowOperationsEndpoint {
+
+    private final SlowOperationSampler slowOperationSampler;
+
+    @ReadOperation
+    public List<SlowOperationSampler.SlowOperation> slowOperations() {
+        return slowOperationSampler.getRecent();
+    }
+}
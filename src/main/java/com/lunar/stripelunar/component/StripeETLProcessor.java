@@ -4,7 +4,10 @@ import com.lunar.stripelunar.model.Customer;
 import com.lunar.stripelunar.model.ETLJobHistory;
 import com.lunar.stripelunar.model.Payment;
 import com.lunar.stripelunar.service.ETLJobHistoryService;
+import com.lunar.stripelunar.service.JobHistoryRecorder;
+import com.lunar.stripelunar.service.RunningJobTracker;
 import com.lunar.stripelunar.service.StripeService;
+import com.lunar.stripelunar.service.SyncJobContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
@@ -22,6 +25,9 @@ public class StripeETLProcessor implements Processor {
 
     private final StripeService stripeService;
     private final ETLJobHistoryService etlJobHistoryService;
+    private final ETLMetricsProcessor etlMetricsProcessor;
+    private final RunningJobTracker runningJobTracker;
+    private final JobHistoryRecorder jobHistoryRecorder;
 
     @Override
     public void process(Exchange exchange) throws Exception {
@@ -33,25 +39,35 @@ public class StripeETLProcessor implements Processor {
         
         log.info("Processing ETL operation: {}", operation);
         ETLJobHistory job = null;
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        long recordsProcessed = 0;
+        SyncJobContext jobContext = SyncJobContext.open();
+        exchange.setProperty(SyncJobContext.EXCHANGE_PROPERTY, jobContext);
         
         try {
-            // Start job tracking
-            job = etlJobHistoryService.startJob(operation);
-            exchange.setProperty("etlJobId", job.getId());
+            // Start job tracking; status checks are reads, not ETL jobs, and are not recorded
+            if (!"status".equals(operation)) {
+                job = jobHistoryRecorder.startJob(operation);
+                exchange.setProperty("etlJobId", job.getId());
+                runningJobTracker.jobStarted(job.getId(), operation, job.getStartTime(), jobContext);
+            }
             
             switch (operation) {
                 case "syncCustomers":
                     List<Customer> customers = stripeService.syncCustomers();
                     exchange.getMessage().setBody(customers);
                     // Complete job tracking
-                    etlJobHistoryService.completeJob(job.getId(), customers.size());
+                    jobHistoryRecorder.completeJob(job, customers.size(), jobContext.snapshot());
+                    recordsProcessed = customers.size();
                     break;
                     
                 case "syncPayments":
                     List<Payment> payments = stripeService.syncPayments();
                     exchange.getMessage().setBody(payments);
                     // Complete job tracking
-                    etlJobHistoryService.completeJob(job.getId(), payments.size());
+                    jobHistoryRecorder.completeJob(job, payments.size(), jobContext.snapshot());
+                    recordsProcessed = payments.size();
                     break;
                     
                 case "syncAll":
@@ -66,29 +82,36 @@ public class StripeETLProcessor implements Processor {
                     
                     exchange.getMessage().setBody(result);
                     // Complete job tracking
-                    etlJobHistoryService.completeJob(job.getId(), syncedCustomers.size() + syncedPayments.size());
+                    jobHistoryRecorder.completeJob(job, syncedCustomers.size() + syncedPayments.size(),
+                            jobContext.snapshot());
+                    recordsProcessed = syncedCustomers.size() + syncedPayments.size();
                     break;
                     
                 case "status":
                     Map<String, Object> status = new HashMap<>();
-                    status.put("customersCount", stripeService.getAllCustomers().size());
-                    status.put("paymentsCount", stripeService.getAllPayments().size());
+                    status.put("customersCount", stripeService.countCustomers());
+                    status.put("paymentsCount", stripeService.countPayments());
                     status.put("jobStatistics", etlJobHistoryService.getJobStatistics());
                     
                     exchange.getMessage().setBody(status);
-                    // Complete job tracking (status check is not a real ETL job)
-                    etlJobHistoryService.completeJob(job.getId(), 0);
                     break;
                     
                 default:
                     throw new IllegalArgumentException("Unknown operation: " + operation);
             }
+            success = true;
         } catch (Exception e) {
             // Record job failure
             if (job != null) {
-                etlJobHistoryService.failJob(job.getId(), e.getMessage());
+                jobHistoryRecorder.failJob(job, e.getMessage(), jobContext.snapshot());
             }
             throw e; // Rethrow to let the error handler deal with it
+        } finally {
+            if (job != null) {
+                runningJobTracker.jobFinished(job.getId());
+            }
+            jobContext.close();
+            etlMetricsProcessor.recordCompletion(operation, System.nanoTime() - startNanos, success, recordsProcessed);
         }
     }
 }
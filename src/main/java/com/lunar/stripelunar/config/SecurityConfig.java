@@ -33,7 +33,7 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf
-                .ignoringRequestMatchers("/webhook/stripe")
+                .ignoringRequestMatchers("/webhook/stripe", "/api/stripe/*/bulk")
                 .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
             )
             .sessionManagement(session -> session
@@ -42,8 +42,10 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/webhook/stripe").permitAll()
                 .requestMatchers("/api/health").permitAll()
+                .requestMatchers(HttpMethod.GET, "/health/live", "/health/ready").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v2/api-docs", "/swagger-resources/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/stripe/**").hasRole("USER")
+                .requestMatchers(HttpMethod.POST, "/api/stripe/*/bulk").hasRole("USER")
                 .requestMatchers(HttpMethod.GET, "/api/etl/**").hasRole("USER")
                 .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -0,0 +1,30 @@
+package com.lunar.stripelunar.config;
+
+import com.lunar.stripelunar.component.SlowOperationSampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Times every Spring Data repository call for SlowOperationSampler
+ */
+@Configuration
+public class SlowOperationConfig {
+
+    // Static and lazily resolved, so the post-processor does not force early creation of the sampler
+    @Bean
+    public static BeanPostProcessor slowRepositoryCallListenerPostProcessor(ObjectProvider<SlowOperationSampler> sampler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addInvocationListener(invocation -> sampler.getObject().afterInvocation(invocation)));
+                }
+                return bean;
+            }
+        };
+    }
+}
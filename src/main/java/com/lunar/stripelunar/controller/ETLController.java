@@ -1,5 +1,6 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.cache.StripeEntityCache;
 import com.lunar.stripelunar.component.ETLMetricsProcessor;
 import com.lunar.stripelunar.model.Customer;
 import com.lunar.stripelunar.model.Payment;
@@ -25,6 +26,7 @@ public class ETLController {
 
     private final StripeService stripeService;
     private final ETLMetricsProcessor etlMetricsProcessor;
+    private final StripeEntityCache entityCache;
 
     @GetMapping("/sync/all")
     public ResponseEntity<Map<String, Object>> syncAll() {
@@ -45,8 +47,8 @@ public class ETLController {
     public ResponseEntity<Map<String, Object>> getStatus() {
         log.info("ETL status check requested");
         
-        long customerCount = stripeService.getAllCustomers().size();
-        long paymentCount = stripeService.getAllPayments().size();
+        long customerCount = stripeService.countCustomers();
+        long paymentCount = stripeService.countPayments();
         
         // Get metrics from the ETL metrics processor
         Map<String, Object> metrics = etlMetricsProcessor.getAllMetrics();
@@ -107,4 +109,15 @@ public class ETLController {
         
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        log.info("Entity cache statistics requested");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("caches", entityCache.getStatistics());
+        response.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        
+        return ResponseEntity.ok(response);
+    }
 }
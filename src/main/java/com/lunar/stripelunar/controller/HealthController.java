@@ -1,10 +1,12 @@
 package com.lunar.stripelunar.controller;
 
 import com.lunar.stripelunar.component.ETLMetricsProcessor;
+import com.lunar.stripelunar.component.ReadinessMonitor;
 import com.lunar.stripelunar.repository.CustomerRepository;
 import com.lunar.stripelunar.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,12 +26,55 @@ public class HealthController {
     private final CustomerRepository customerRepository;
     private final PaymentRepository paymentRepository;
     private final ETLMetricsProcessor etlMetricsProcessor;
+    private final ReadinessMonitor readinessMonitor;
     
     private final LocalDateTime applicationStartTime = LocalDateTime.now();
 
+    /**
+     * Liveness probe: answers without touching the database or any other dependency
+     */
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+    
+    /**
+     * Readiness probe: served from ReadinessMonitor's last snapshot, 503 until the
+     * database has answered or once the snapshot goes stale
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        ReadinessMonitor.Snapshot snapshot = readinessMonitor.getSnapshot();
+        Map<String, Object> readiness = new HashMap<>();
+        if (snapshot == null) {
+            readiness.put("status", "STARTING");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(readiness);
+        }
+        
+        boolean ready = readinessMonitor.isReady();
+        readiness.put("status", ready ? "UP" : "DOWN");
+        readiness.put("checkedAt", snapshot.checkedAt().toString());
+        readiness.put("stale", readinessMonitor.isStale(snapshot));
+        Map<String, Object> database = new HashMap<>();
+        database.put("status", snapshot.databaseUp() ? "UP" : "DOWN");
+        database.put("latencyMs", snapshot.databaseLatencyMillis());
+        if (snapshot.databaseUp()) {
+            database.put("customerCount", snapshot.customerCount());
+            database.put("paymentCount", snapshot.paymentCount());
+        } else {
+            database.put("error", snapshot.error());
+        }
+        readiness.put("database", database);
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(readiness);
+    }
+    
+    /**
+     * Detailed diagnostics for operators. Runs COUNT(*) on both tables, so probes
+     * should use /health/live and /health/ready instead.
+     */
     @GetMapping
     public ResponseEntity<Map<String, Object>> healthCheck() {
-        log.info("Health check requested");
+        log.debug("Health check requested");
         
         Map<String, Object> health = new HashMap<>();
         health.put("status", "UP");
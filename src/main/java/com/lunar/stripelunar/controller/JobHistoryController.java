@@ -1,8 +1,13 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.model.ETLJobDailyRollup;
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobHistoryCursor;
+import com.lunar.stripelunar.model.JobHistoryPage;
+import com.lunar.stripelunar.model.RunningJobProgress;
 import com.lunar.stripelunar.service.ETLJobHistoryService;
-import com.lunar.stripelunar.util.CsvExportUtil;
+import com.lunar.stripelunar.service.RunningJobTracker;
+import com.lunar.stripelunar.util.ContentNegotiationUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,12 +20,16 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/jobs")
@@ -29,27 +38,38 @@ import java.util.Map;
 @Tag(name = "Job History", description = "ETL Job History Management API")
 public class JobHistoryController {
 
+    /**
+     * Response header carrying the cursor of the next page; absent on the last page
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ETLJobHistoryService etlJobHistoryService;
-    private final CsvExportUtil csvExportUtil;
+    private final RunningJobTracker runningJobTracker;
 
     @GetMapping
-    @Operation(summary = "Get all job executions for a specific job type")
+    @Operation(summary = "Get one page of executions for a specific job type, newest first")
     public ResponseEntity<List<ETLJobHistory>> getJobExecutions(
             @Parameter(description = "Job name to filter by", required = true)
-            @RequestParam String jobName) {
+            @RequestParam String jobName,
+            @Parameter(description = "Page size (default 100, max 1000)")
+            @RequestParam(defaultValue = "0") int limit,
+            @Parameter(description = "X-Next-Cursor value from the previous page")
+            @RequestParam(required = false) String before) {
         log.info("Retrieving job executions for job: {}", jobName);
-        List<ETLJobHistory> jobs = etlJobHistoryService.getJobExecutions(jobName);
-        return ResponseEntity.ok(jobs);
+        return toResponse(etlJobHistoryService.getJobExecutions(jobName, limit, decodeCursor(before)));
     }
 
     @GetMapping("/recent")
-    @Operation(summary = "Get jobs executed after a specific date")
+    @Operation(summary = "Get one page of jobs executed after a specific date, newest first")
     public ResponseEntity<List<ETLJobHistory>> getRecentJobs(
             @Parameter(description = "Start date for job filtering (ISO format)", required = true)
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "Page size (default 100, max 1000)")
+            @RequestParam(defaultValue = "0") int limit,
+            @Parameter(description = "X-Next-Cursor value from the previous page")
+            @RequestParam(required = false) String before) {
         log.info("Retrieving jobs executed after: {}", startDate);
-        List<ETLJobHistory> jobs = etlJobHistoryService.getJobsAfterDate(startDate);
-        return ResponseEntity.ok(jobs);
+        return toResponse(etlJobHistoryService.getJobsAfterDate(startDate, limit, decodeCursor(before)));
     }
 
     @GetMapping("/last")
@@ -63,6 +83,21 @@ public class JobHistoryController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/running")
+    @Operation(summary = "Get live progress of the jobs currently running")
+    public ResponseEntity<List<RunningJobProgress>> getRunningJobs() {
+        return ResponseEntity.ok(runningJobTracker.getRunningJobs());
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "Get per-day job counts, records and durations for each job name")
+    public ResponseEntity<List<ETLJobDailyRollup>> getDailyRollups(
+            @Parameter(description = "Number of days to include, counting today")
+            @RequestParam(defaultValue = "7") int days) {
+        LocalDate fromDate = LocalDate.now().minusDays(Math.max(1, days) - 1L);
+        return ResponseEntity.ok(etlJobHistoryService.getDailyRollups(fromDate));
+    }
+
     @GetMapping("/statistics")
     @Operation(summary = "Get job execution statistics")
     public ResponseEntity<Map<String, Object>> getJobStatistics() {
@@ -72,33 +107,52 @@ public class JobHistoryController {
     }
     
     @GetMapping("/export")
-    @Operation(summary = "Export job history to CSV")
+    @Operation(summary = "Export job history to CSV, gzip-compressed when the client accepts it")
     public void exportJobHistory(
             @Parameter(description = "Job name to filter by (optional)")
             @RequestParam(required = false) String jobName,
-            @Parameter(description = "Start date for job filtering (ISO format, optional)")
+            @Parameter(description = "Earliest job start time, inclusive (ISO format, optional)")
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "Latest job start time, exclusive (ISO format, optional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             HttpServletResponse response) throws IOException {
         
-        log.info("Exporting job history to CSV. Job name: {}, Start date: {}", jobName, startDate);
+        log.info("Exporting job history to CSV. Job name: {}, Start date: {}, End date: {}", jobName, startDate, endDate);
         
         // Set response headers
         String filename = "etl-job-history-" + LocalDate.now().format(DateTimeFormatter.ISO_DATE) + ".csv";
-        response.setContentType("text/csv");
+        // Both branches write UTF-8; without it getWriter() falls back to ISO-8859-1
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("text/csv; charset=UTF-8");
         response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
         
-        // Get job history data
-        List<ETLJobHistory> jobs;
-        if (jobName != null && !jobName.isEmpty()) {
-            jobs = etlJobHistoryService.getJobExecutions(jobName);
-        } else if (startDate != null) {
-            jobs = etlJobHistoryService.getJobsAfterDate(startDate);
+        // Rows are streamed from the database straight into the response; nothing is buffered whole
+        Writer writer;
+        if (ContentNegotiationUtil.accepts(acceptEncoding, "gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            writer = new OutputStreamWriter(new GZIPOutputStream(response.getOutputStream(), 8192), StandardCharsets.UTF_8);
         } else {
-            // Get all jobs (limited to last 100 for performance)
-            jobs = etlJobHistoryService.getJobsAfterDate(LocalDateTime.now().minusDays(30));
+            writer = response.getWriter();
         }
         
-        // Export to CSV
-        csvExportUtil.exportJobHistoryToCsv(jobs, response.getWriter());
+        String nameFilter = jobName != null && !jobName.isEmpty() ? jobName : null;
+        try (writer) {
+            long rows = etlJobHistoryService.exportJobHistory(nameFilter, startDate, endDate, writer);
+            log.info("Exported {} job history rows", rows);
+        }
+    }
+
+    private static JobHistoryCursor decodeCursor(String before) {
+        return before == null || before.isBlank() ? null : JobHistoryCursor.decode(before.trim());
+    }
+
+    private static ResponseEntity<List<ETLJobHistory>> toResponse(JobHistoryPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.jobs());
     }
 }
@@ -1,11 +1,14 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.jfr.WebhookHandledEvent;
 import com.lunar.stripelunar.service.StripeService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
 import com.stripe.model.EventDataObjectDeserializer;
 import com.stripe.model.StripeObject;
 import com.stripe.net.Webhook;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +24,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class StripeWebhookController {
 
     private final StripeService stripeService;
+    private final MeterRegistry meterRegistry;
     
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
@@ -31,15 +35,26 @@ public class StripeWebhookController {
             @RequestHeader("Stripe-Signature") String sigHeader) {
         
         log.info("Received Stripe webhook event");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        WebhookHandledEvent handledEvent = new WebhookHandledEvent();
+        handledEvent.begin();
+        String eventType = "unknown";
+        String outcome = "error";
+        long deliveryLagMillis = 0;
         
         try {
             Event event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
+            eventType = event.getType();
+            if (event.getCreated() != null) {
+                deliveryLagMillis = Math.max(0, System.currentTimeMillis() - event.getCreated() * 1000);
+            }
             
             // Deserialize the event data
             EventDataObjectDeserializer dataObjectDeserializer = event.getDataObjectDeserializer();
             
             if (!dataObjectDeserializer.getObject().isPresent()) {
                 log.warn("Failed to deserialize webhook event object");
+                outcome = "bad_request";
                 return ResponseEntity.badRequest().body("Failed to deserialize webhook event object");
             }
             
@@ -67,16 +82,29 @@ public class StripeWebhookController {
                     
                 default:
                     log.info("Unhandled event type: {}", event.getType());
+                    // Keep arbitrary event names out of the metric tags
+                    eventType = "unhandled";
             }
             
+            outcome = "processed";
             return ResponseEntity.ok().body("Webhook processed successfully");
             
         } catch (SignatureVerificationException e) {
             log.error("Invalid signature on Stripe webhook", e);
+            outcome = "invalid_signature";
             return ResponseEntity.badRequest().body("Invalid signature");
         } catch (Exception e) {
             log.error("Error processing Stripe webhook", e);
             return ResponseEntity.status(500).body("Error processing webhook");
+        } finally {
+            sample.stop(meterRegistry.timer("stripe.webhook.events", "type", eventType, "outcome", outcome));
+            handledEvent.end();
+            if (handledEvent.shouldCommit()) {
+                handledEvent.eventType = eventType;
+                handledEvent.outcome = outcome;
+                handledEvent.deliveryLag = deliveryLagMillis;
+                handledEvent.commit();
+            }
         }
     }
 }
@@ -0,0 +1,29 @@
+package com.lunar.stripelunar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A cache miss loaded from the database. Hits are cheap enough to leave to the cache meters.
+ */
+@Name("com.lunar.stripelunar.CacheLoad")
+@Label("Cache Load")
+@Description("Entity cache miss loaded from the database")
+@Category({"Stripe Lunar", "Cache"})
+@Threshold("5 ms")
+@StackTrace(false)
+public class CacheLoadEvent extends jdk.jfr.Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Keys Requested")
+    public int keysRequested;
+
+    @Label("Entries Loaded")
+    public int entriesLoaded;
+}
@@ -0,0 +1,26 @@
+package com.lunar.stripelunar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One synced batch saved and flushed to Oracle
+ */
+@Name("com.lunar.stripelunar.DbBatchFlush")
+@Label("DB Batch Flush")
+@Description("A batch of synced rows saved and flushed to the database")
+@Category({"Stripe Lunar", "Persistence"})
+@Threshold("10 ms")
+@StackTrace(false)
+public class DbBatchFlushEvent extends jdk.jfr.Event {
+
+    @Label("Resource")
+    public String resource;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,34 @@
+package com.lunar.stripelunar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One page fetched from the Stripe list API
+ */
+@Name("com.lunar.stripelunar.StripePageFetch")
+@Label("Stripe Page Fetch")
+@Description("A page of objects fetched from the Stripe list API")
+@Category({"Stripe Lunar", "Stripe API"})
+@Threshold("20 ms")
+@StackTrace(false)
+public class StripePageFetchEvent extends jdk.jfr.Event {
+
+    @Label("Resource")
+    public String resource;
+
+    @Label("Page Size")
+    @Description("Number of objects in the returned page")
+    public int pageSize;
+
+    @Label("Has More")
+    public boolean hasMore;
+
+    @Label("Status")
+    @Description("success, or the Stripe exception type")
+    public String status;
+}
@@ -0,0 +1,32 @@
+package com.lunar.stripelunar.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * One Stripe webhook request handled, including the sync it triggered
+ */
+@Name("com.lunar.stripelunar.WebhookHandled")
+@Label("Webhook Handled")
+@Description("A Stripe webhook event verified and processed")
+@Category({"Stripe Lunar", "Webhook"})
+@Threshold("50 ms")
+@StackTrace(false)
+public class WebhookHandledEvent extends jdk.jfr.Event {
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Delivery Lag")
+    @Description("Time between Stripe creating the event and this service starting to handle it")
+    @Timespan(Timespan.MILLISECONDS)
+    public long deliveryLag;
+}
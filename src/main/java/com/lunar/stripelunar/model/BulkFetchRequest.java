@@ -0,0 +1,9 @@
+package com.lunar.stripelunar.model;
+
+import java.util.List;
+
+/**
+ * Body of a bulk fetch-by-ids request
+ */
+public record BulkFetchRequest(List<String> ids) {
+}
@@ -0,0 +1,12 @@
+package com.lunar.stripelunar.model;
+
+import java.util.List;
+
+/**
+ * Bulk fetch results in request order. Ids that do not exist are returned with found=false and no data.
+ */
+public record BulkFetchResult<T>(List<Item<T>> results, int found, int notFound) {
+
+    public record Item<T>(String id, boolean found, T data) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.lunar.stripelunar.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Number and sum of one customer's payments in one currency
+ */
+public record CustomerCurrencyTotal(
+        String customerId,
+        String currency,
+        Long paymentCount,
+        BigDecimal total) {
+}
@@ -0,0 +1,9 @@
+package com.lunar.stripelunar.model;
+
+import java.util.List;
+
+/**
+ * One page of customers ordered by id, each with its payments
+ */
+public record CustomerPaymentsPage(List<CustomerWithPayments> customers, int page, int size, boolean hasNext) {
+}
@@ -0,0 +1,20 @@
+package com.lunar.stripelunar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of a customer without the DESCRIPTION and METADATA columns
+ */
+public record CustomerSummary(
+        String id,
+        String email,
+        String name,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate,
+        Boolean deleted) {
+
+    public static CustomerSummary from(Customer customer) {
+        return new CustomerSummary(customer.getId(), customer.getEmail(), customer.getName(),
+                customer.getCreatedDate(), customer.getUpdatedDate(), customer.getDeleted());
+    }
+}
@@ -0,0 +1,15 @@
+package com.lunar.stripelunar.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A customer with its most recent payments and payment totals per currency
+ */
+public record CustomerWithPayments(
+        CustomerSummary customer,
+        List<PaymentSummary> recentPayments,
+        long paymentCount,
+        Map<String, BigDecimal> totalsByCurrency) {
+}
@@ -0,0 +1,11 @@
+package com.lunar.stripelunar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest UPDATED_DATE of a table, compared between reloads to notice writes
+ */
+public record DataVersion(
+        Long rows,
+        LocalDateTime lastUpdated) {
+}
@@ -0,0 +1,55 @@
+package com.lunar.stripelunar.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Finished ETL jobs of one job name on one day (by start time), kept current by
+ * ETLJobHistoryService as jobs complete or fail
+ */
+@Entity
+@Table(name = "ETL_JOB_DAILY_ROLLUP")
+@IdClass(ETLJobDailyRollup.RollupId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ETLJobDailyRollup {
+
+    @Id
+    @Column(name = "ROLLUP_DATE")
+    private LocalDate rollupDate;
+
+    @Id
+    @Column(name = "JOB_NAME")
+    private String jobName;
+
+    @Column(name = "COMPLETED_COUNT")
+    private long completedCount;
+
+    @Column(name = "FAILED_COUNT")
+    private long failedCount;
+
+    @Column(name = "RECORDS_PROCESSED")
+    private long recordsProcessed;
+
+    @Column(name = "TOTAL_DURATION_MS")
+    private long totalDurationMillis;
+
+    @Column(name = "MAX_DURATION_MS")
+    private long maxDurationMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RollupId implements Serializable {
+        private LocalDate rollupDate;
+        private String jobName;
+    }
+}
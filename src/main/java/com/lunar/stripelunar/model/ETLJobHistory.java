@@ -26,8 +26,10 @@ import java.time.LocalDateTime;
 @Builder
 public class ETLJobHistory {
 
+    // Shared with JobHistoryRecorder, which allocates IDs from the same sequence
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "etlJobIdSequence")
+    @SequenceGenerator(name = "etlJobIdSequence", sequenceName = "SEQ_ETL_JOB_ID", allocationSize = 1)
     @Column(name = "JOB_ID")
     private Long id;
 
@@ -46,14 +48,39 @@ public class ETLJobHistory {
     @Column(name = "RECORDS_PROCESSED")
     private Integer recordsProcessed;
 
-    @Column(name = "ERROR_MESSAGE", length = 4000)
+    @Column(name = "ERROR_MESSAGE", length = ERROR_MESSAGE_MAX_BYTES)
     private String errorMessage;
+
+    // Stage timing breakdown, see SyncStageTimings
+    @Column(name = "API_FETCH_MS")
+    private Long apiFetchMillis;
+
+    @Column(name = "MAPPING_MS")
+    private Long mappingMillis;
+
+    @Column(name = "DB_WRITE_MS")
+    private Long dbWriteMillis;
+
+    @Column(name = "COMMIT_MS")
+    private Long commitMillis;
+
+    @Column(name = "API_CALLS")
+    private Integer apiCalls;
+
+    @Column(name = "BYTES_RECEIVED")
+    private Long bytesReceived;
+
+    @Column(name = "BATCH_COUNT")
+    private Integer batchCount;
     
     // Helper methods for job status
     public static final String STATUS_RUNNING = "RUNNING";
     public static final String STATUS_COMPLETED = "COMPLETED";
     public static final String STATUS_FAILED = "FAILED";
     
+    // Width of ERROR_MESSAGE, a VARCHAR2 with byte length semantics
+    public static final int ERROR_MESSAGE_MAX_BYTES = 4000;
+    
     public boolean isCompleted() {
         return STATUS_COMPLETED.equals(status);
     }
@@ -66,6 +93,16 @@ public class ETLJobHistory {
         return STATUS_RUNNING.equals(status);
     }
 
+    public void applyStageTimings(SyncStageTimings timings) {
+        this.apiFetchMillis = timings.apiFetchMillis();
+        this.mappingMillis = timings.mappingMillis();
+        this.dbWriteMillis = timings.dbWriteMillis();
+        this.commitMillis = timings.commitMillis();
+        this.apiCalls = timings.apiCalls();
+        this.bytesReceived = timings.bytesReceived();
+        this.batchCount = timings.batchCount();
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -0,0 +1,9 @@
+package com.lunar.stripelunar.model;
+
+import java.util.List;
+
+/**
+ * One page of job history, newest first. nextCursor is null on the last page.
+ */
+public record JobHistoryPage(List<ETLJobHistory> jobs, String nextCursor, int limit) {
+}
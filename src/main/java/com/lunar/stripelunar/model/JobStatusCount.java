@@ -0,0 +1,10 @@
+package com.lunar.stripelunar.model;
+
+/**
+ * Number of ETL_JOB_HISTORY rows for one job name and status
+ */
+public record JobStatusCount(
+        String jobName,
+        String status,
+        Long count) {
+}
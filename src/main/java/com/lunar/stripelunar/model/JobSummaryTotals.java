@@ -0,0 +1,7 @@
+package com.lunar.stripelunar.model;
+
+/**
+ * Finished jobs of one job name over a summary period, summed in the database from ETL_JOB_DAILY_ROLLUP
+ */
+public record JobSummaryTotals(String jobName, Long completedCount, Long failedCount, Long recordsProcessed) {
+}
@@ -0,0 +1,9 @@
+package com.lunar.stripelunar.model;
+
+/**
+ * Stored customer of an existing payment, read before a sync overwrites it
+ */
+public record PaymentOwner(
+        String paymentId,
+        String customerId) {
+}
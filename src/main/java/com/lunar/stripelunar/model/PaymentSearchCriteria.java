@@ -0,0 +1,64 @@
+package com.lunar.stripelunar.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Filters and keyset position for a payment search. Null filters are not applied.
+ * The created-date range is inclusive of createdFrom and exclusive of createdTo.
+ */
+public record PaymentSearchCriteria(
+        String status,
+        String currency,
+        String customerId,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        PaymentSearchCursor after,
+        int limit) {
+
+    /**
+     * Build criteria from raw query parameters. Dates may be ISO dates or date-times,
+     * blank parameters are ignored and a missing limit is left as 0 for the service default.
+     */
+    public static PaymentSearchCriteria fromQuery(String status, String currency, String customerId,
+                                                  String createdFrom, String createdTo, String cursor, String limit) {
+        return new PaymentSearchCriteria(
+                blankToNull(status),
+                blankToNull(currency) != null ? currency.trim().toLowerCase(Locale.ROOT) : null,
+                blankToNull(customerId),
+                parseDateTime("createdFrom", createdFrom),
+                parseDateTime("createdTo", createdTo),
+                blankToNull(cursor) != null ? PaymentSearchCursor.decode(cursor.trim()) : null,
+                parseLimit(limit));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static LocalDateTime parseDateTime(String name, String value) {
+        String trimmed = blankToNull(value);
+        if (trimmed == null) {
+            return null;
+        }
+        try {
+            return trimmed.length() == 10 ? LocalDate.parse(trimmed).atStartOfDay() : LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + " date: " + value, e);
+        }
+    }
+
+    private static int parseLimit(String value) {
+        String trimmed = blankToNull(value);
+        if (trimmed == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value, e);
+        }
+    }
+}
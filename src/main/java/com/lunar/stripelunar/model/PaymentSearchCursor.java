@@ -0,0 +1,35 @@
+package com.lunar.stripelunar.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a payment search: the (createdDate, id) of the last row returned.
+ * The created date is null while paging through payments stored without one.
+ * Travels to clients as an opaque URL-safe token.
+ */
+public record PaymentSearchCursor(LocalDateTime createdDate, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = (createdDate != null ? createdDate.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentSearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid payment search cursor: " + token);
+            }
+            LocalDateTime createdDate = separator == 0 ? null : LocalDateTime.parse(raw.substring(0, separator));
+            return new PaymentSearchCursor(createdDate, raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid payment search cursor: " + token, e);
+        }
+    }
+}
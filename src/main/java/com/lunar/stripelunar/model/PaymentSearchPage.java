@@ -0,0 +1,9 @@
+package com.lunar.stripelunar.model;
+
+import java.util.List;
+
+/**
+ * One page of payment search results, newest first. nextCursor is null on the last page.
+ */
+public record PaymentSearchPage(List<PaymentSummary> payments, String nextCursor, int limit) {
+}
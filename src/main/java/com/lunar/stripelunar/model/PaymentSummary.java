@@ -0,0 +1,22 @@
+package com.lunar.stripelunar.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List view of a payment without the DESCRIPTION and METADATA columns
+ */
+public record PaymentSummary(
+        String id,
+        String customerId,
+        BigDecimal amount,
+        String currency,
+        String status,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate) {
+
+    public static PaymentSummary from(Payment payment) {
+        return new PaymentSummary(payment.getId(), payment.getCustomerId(), payment.getAmount(),
+                payment.getCurrency(), payment.getStatus(), payment.getCreatedDate(), payment.getUpdatedDate());
+    }
+}
@@ -0,0 +1,21 @@
+package com.lunar.stripelunar.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live view of an ETL job that has not finished yet. {@code etaSeconds} covers the
+ * resource currently being synced and is null until its first page arrives.
+ */
+public record RunningJobProgress(
+        Long jobId,
+        String jobName,
+        LocalDateTime startTime,
+        long elapsedSeconds,
+        String stage,
+        String resource,
+        long pagesFetched,
+        long recordsWritten,
+        boolean hasMore,
+        double recordsPerSecond,
+        Long etaSeconds) {
+}
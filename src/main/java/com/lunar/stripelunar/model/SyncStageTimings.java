@@ -0,0 +1,15 @@
+package com.lunar.stripelunar.model;
+
+/**
+ * Where an ETL job spent its time: Stripe API fetches, mapping Stripe objects to
+ * entities, writing batches to Oracle and committing, plus the volume behind them
+ */
+public record SyncStageTimings(
+        long apiFetchMillis,
+        long mappingMillis,
+        long dbWriteMillis,
+        long commitMillis,
+        int apiCalls,
+        long bytesReceived,
+        int batchCount) {
+}
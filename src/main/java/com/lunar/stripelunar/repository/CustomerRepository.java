@@ -1,10 +1,43 @@
 package com.lunar.stripelunar.repository;
 
 import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerSummary;
+import com.lunar.stripelunar.model.DataVersion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
-    // Custom query methods can be added here if needed
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT new com.lunar.stripelunar.model.CustomerSummary(c.id, c.email, c.name, c.createdDate, c.updatedDate, c.deleted) " +
+           "FROM Customer c")
+    List<CustomerSummary> findAllSummaries();
+
+    @Query("SELECT new com.lunar.stripelunar.model.CustomerSummary(c.id, c.email, c.name, c.createdDate, c.updatedDate, c.deleted) " +
+           "FROM Customer c ORDER BY c.id")
+    Slice<CustomerSummary> findSummaryPage(Pageable pageable);
+
+    /**
+     * Case-insensitive email lookup served by the LOWER(EMAIL) function-based index
+     *
+     * @param email Email already trimmed and lower-cased
+     */
+    @Query("SELECT c FROM Customer c WHERE LOWER(c.email) = :email")
+    List<Customer> findByNormalizedEmail(@Param("email") String email);
+
+    /**
+     * Row count and latest update of the table, reloaded by DataVersionTracker
+     */
+    @Query("SELECT new com.lunar.stripelunar.model.DataVersion(COUNT(c), MAX(c.updatedDate)) FROM Customer c")
+    DataVersion findDataVersion();
 }
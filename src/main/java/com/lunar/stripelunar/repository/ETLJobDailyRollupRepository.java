@@ -0,0 +1,29 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.ETLJobDailyRollup;
+import com.lunar.stripelunar.model.JobSummaryTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ETLJobDailyRollupRepository extends JpaRepository<ETLJobDailyRollup, ETLJobDailyRollup.RollupId>,
+        ETLJobDailyRollupWriteRepository {
+    
+    @Query("SELECT r FROM ETLJobDailyRollup r WHERE r.rollupDate >= :fromDate ORDER BY r.rollupDate DESC, r.jobName")
+    List<ETLJobDailyRollup> findFromDate(@Param("fromDate") LocalDate fromDate);
+    
+    /**
+     * Per-job totals for the days from fromDate up to but excluding toDate, one row per job
+     * name however many jobs ran
+     */
+    @Query("SELECT new com.lunar.stripelunar.model.JobSummaryTotals(r.jobName, SUM(r.completedCount), " +
+           "SUM(r.failedCount), SUM(r.recordsProcessed)) " +
+           "FROM ETLJobDailyRollup r WHERE r.rollupDate >= :fromDate AND r.rollupDate < :toDate " +
+           "GROUP BY r.jobName ORDER BY r.jobName")
+    List<JobSummaryTotals> sumByJobNameBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+}
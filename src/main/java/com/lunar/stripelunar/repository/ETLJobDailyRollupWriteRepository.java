@@ -0,0 +1,23 @@
+package com.lunar.stripelunar.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Upsert of the daily rollup row, run through JDBC so a failed attempt does not mark the
+ * surrounding job history transaction rollback-only.
+ */
+public interface ETLJobDailyRollupWriteRepository {
+
+    /**
+     * Add one finished job to its day's rollup row, creating the row on the first job of the day
+     *
+     * @param rollupDate Day the job started on
+     * @param jobName Name of the ETL job
+     * @param completed 1 if the job completed, otherwise 0
+     * @param failed 1 if the job failed, otherwise 0
+     * @param records Records the job processed
+     * @param durationMs Job run time in milliseconds
+     * @return Rows merged
+     */
+    int addJob(LocalDate rollupDate, String jobName, int completed, int failed, long records, long durationMs);
+}
@@ -0,0 +1,94 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.ETLJobHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC batch writes of job history rows whose IDs were allocated up front from SEQ_ETL_JOB_ID.
+ * JPA would treat a pre-assigned ID as a detached entity and merge row by row.
+ */
+@Repository
+public class ETLJobHistoryBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO %s.ETL_JOB_HISTORY (JOB_ID, JOB_NAME, START_TIME, " +
+            "END_TIME, STATUS, RECORDS_PROCESSED, ERROR_MESSAGE, API_FETCH_MS, MAPPING_MS, DB_WRITE_MS, COMMIT_MS, " +
+            "API_CALLS, BYTES_RECEIVED, BATCH_COUNT) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = {Types.NUMERIC, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP,
+            Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT,
+            Types.INTEGER, Types.BIGINT, Types.INTEGER};
+
+    private static final String UPDATE_SQL = "UPDATE %s.ETL_JOB_HISTORY SET END_TIME = ?, STATUS = ?, " +
+            "RECORDS_PROCESSED = ?, ERROR_MESSAGE = ?, API_FETCH_MS = ?, MAPPING_MS = ?, DB_WRITE_MS = ?, " +
+            "COMMIT_MS = ?, API_CALLS = ?, BYTES_RECEIVED = ?, BATCH_COUNT = ? WHERE JOB_ID = ?";
+
+    private static final int[] UPDATE_TYPES = {Types.TIMESTAMP, Types.VARCHAR, Types.INTEGER, Types.VARCHAR,
+            Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.BIGINT, Types.INTEGER,
+            Types.NUMERIC};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public ETLJobHistoryBatchRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${spring.jpa.properties.hibernate.default_schema:STRIPE_LUNAR}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * Next job IDs from SEQ_ETL_JOB_ID, fetched in one round trip
+     */
+    public List<Long> nextJobIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT " + schema + ".SEQ_ETL_JOB_ID.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?", Long.class, count);
+    }
+
+    public void insertAll(List<ETLJobHistory> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(String.format(INSERT_SQL, schema), jobs.stream()
+                .map(job -> new Object[]{job.getId(), job.getJobName(), timestamp(job.getStartTime()),
+                        timestamp(job.getEndTime()), job.getStatus(), job.getRecordsProcessed(), job.getErrorMessage(),
+                        job.getApiFetchMillis(), job.getMappingMillis(), job.getDbWriteMillis(), job.getCommitMillis(),
+                        job.getApiCalls(), job.getBytesReceived(), job.getBatchCount()})
+                .toList(), INSERT_TYPES);
+    }
+
+    /**
+     * Update existing job rows in one batch
+     *
+     * @return Jobs whose UPDATE matched no row, for instance because their insert was dropped
+     */
+    public List<ETLJobHistory> updateAll(List<ETLJobHistory> jobs) {
+        if (jobs.isEmpty()) {
+            return List.of();
+        }
+        int[] counts = jdbcTemplate.batchUpdate(String.format(UPDATE_SQL, schema), jobs.stream()
+                .map(job -> new Object[]{timestamp(job.getEndTime()), job.getStatus(), job.getRecordsProcessed(),
+                        job.getErrorMessage(), job.getApiFetchMillis(), job.getMappingMillis(), job.getDbWriteMillis(),
+                        job.getCommitMillis(), job.getApiCalls(), job.getBytesReceived(), job.getBatchCount(),
+                        job.getId()})
+                .toList(), UPDATE_TYPES);
+        // SUCCESS_NO_INFO (-2) means the driver did not report a count; only an explicit 0 is a miss
+        List<ETLJobHistory> missed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missed.add(jobs.get(i));
+            }
+        }
+        return missed;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.ETLJobHistory;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Cursor-backed read of job history for exports. Rows are fetched from Oracle fetchSize
+ * at a time and detached as they are consumed, so memory stays flat however many rows match.
+ */
+public interface ETLJobHistoryExportRepository {
+
+    /**
+     * Stream jobs matching every supplied filter, newest first. Must be consumed and closed
+     * inside a read-only transaction.
+     *
+     * @param jobName Job name to match, or null for all jobs
+     * @param startFrom Earliest start time (inclusive), or null for no lower bound
+     * @param startTo Latest start time (exclusive), or null for no upper bound
+     * @param fetchSize Rows fetched per database round trip
+     * @return Matching jobs
+     */
+    Stream<ETLJobHistory> streamForExport(String jobName, LocalDateTime startFrom, LocalDateTime startTo, int fetchSize);
+}
@@ -0,0 +1,51 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.ETLJobHistory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ETLJobHistoryExportRepositoryImpl implements ETLJobHistoryExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ETLJobHistory> streamForExport(String jobName, LocalDateTime startFrom, LocalDateTime startTo, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ETLJobHistory> query = cb.createQuery(ETLJobHistory.class);
+        Root<ETLJobHistory> job = query.from(ETLJobHistory.class);
+        Path<LocalDateTime> startTime = job.get("startTime");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (jobName != null) {
+            predicates.add(cb.equal(job.get("jobName"), jobName));
+        }
+        if (startFrom != null) {
+            predicates.add(cb.greaterThanOrEqualTo(startTime, startFrom));
+        }
+        if (startTo != null) {
+            predicates.add(cb.lessThan(startTime, startTo));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(startTime), cb.desc(job.get("id")));
+
+        // Read-only skips dirty-checking snapshots; detaching keeps the persistence context empty
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,94 @@
+package com.lunar.stripelunar.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Partition maintenance on the monthly interval-partitioned ETL_JOB_HISTORY (see V6 migration).
+ * Partitions are addressed with PARTITION FOR (date) so system-generated names never matter.
+ * DDL cannot take bind variables, so the date literal is formatted from a LocalDate.
+ */
+@Repository
+public class ETLJobHistoryPartitionRepository {
+
+    /**
+     * Upper bound of P_BEFORE_2024, the range partition that precedes the interval partitions
+     */
+    public static final LocalDate INITIAL_PARTITION_BOUND = LocalDate.of(2024, 1, 1);
+
+    private static final DateTimeFormatter TIMESTAMP_LITERAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public ETLJobHistoryPartitionRepository(JdbcTemplate jdbcTemplate,
+                                            @Value("${spring.jpa.properties.hibernate.default_schema:STRIPE_LUNAR}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * First day of every month that has jobs starting before the cutoff, oldest first
+     */
+    public List<LocalDate> findMonthsWithJobsBefore(LocalDate cutoff) {
+        return jdbcTemplate.query(
+                "SELECT DISTINCT TRUNC(START_TIME, 'MM') FROM " + table() + " WHERE START_TIME < ? ORDER BY 1",
+                (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime().toLocalDate(),
+                Timestamp.valueOf(cutoff.atStartOfDay()));
+    }
+
+    /**
+     * Whether the partition holding the given month is already compressed
+     */
+    public boolean isCompressed(LocalDate month) {
+        List<String> compression = jdbcTemplate.queryForList(
+                "SELECT p.COMPRESSION FROM ALL_TAB_PARTITIONS p " +
+                "JOIN ALL_OBJECTS o ON o.OWNER = p.TABLE_OWNER AND o.OBJECT_NAME = p.TABLE_NAME " +
+                "AND o.SUBOBJECT_NAME = p.PARTITION_NAME " +
+                "WHERE p.TABLE_OWNER = ? AND p.TABLE_NAME = 'ETL_JOB_HISTORY' " +
+                "AND o.DATA_OBJECT_ID = (SELECT DBMS_ROWID.ROWID_OBJECT(ROWID) FROM " + table() + " " +
+                "WHERE START_TIME >= ? AND START_TIME < ? AND ROWNUM = 1)",
+                String.class,
+                schema,
+                Timestamp.valueOf(month.atStartOfDay()),
+                Timestamp.valueOf(month.plusMonths(1).atStartOfDay()));
+        return !compression.isEmpty() && "ENABLED".equals(compression.get(0));
+    }
+
+    /**
+     * Rebuild the month's partition with basic compression; old job rows are never updated again
+     */
+    public void compressPartition(LocalDate month) {
+        jdbcTemplate.execute("ALTER TABLE " + table() + " MOVE PARTITION FOR (" + literal(month) + ") " +
+                "ROW STORE COMPRESS BASIC ONLINE UPDATE INDEXES");
+    }
+
+    /**
+     * Drop the interval partition holding the month
+     */
+    public void dropPartition(LocalDate month) {
+        jdbcTemplate.execute("ALTER TABLE " + table() + " DROP PARTITION FOR (" + literal(month) + ") " +
+                "UPDATE GLOBAL INDEXES");
+    }
+
+    /**
+     * Empty P_BEFORE_2024; as the last range partition before the intervals it cannot be dropped
+     */
+    public void truncateInitialPartition() {
+        jdbcTemplate.execute("ALTER TABLE " + table() + " TRUNCATE PARTITION P_BEFORE_2024 UPDATE GLOBAL INDEXES");
+    }
+
+    private String table() {
+        return schema + ".ETL_JOB_HISTORY";
+    }
+
+    private static String literal(LocalDate month) {
+        return "TIMESTAMP '" + month.atStartOfDay().format(TIMESTAMP_LITERAL) + "'";
+    }
+}
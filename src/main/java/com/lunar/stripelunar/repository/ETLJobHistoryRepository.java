@@ -1,6 +1,8 @@
 package com.lunar.stripelunar.repository;
 
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobStatusCount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,18 +13,54 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ETLJobHistoryRepository extends JpaRepository<ETLJobHistory, Long> {
+public interface ETLJobHistoryRepository extends JpaRepository<ETLJobHistory, Long>, ETLJobHistoryExportRepository {
     
-    List<ETLJobHistory> findByJobNameOrderByStartTimeDesc(String jobName);
+    /**
+     * Keyset pages over IDX_JOB_NAME_START_TIME (JOB_NAME, START_TIME, JOB_ID), newest first.
+     * Only the page size comes from the Pageable; the position comes from the cursor.
+     */
+    @Query("SELECT e FROM ETLJobHistory e WHERE e.jobName = :jobName ORDER BY e.startTime DESC, e.id DESC")
+    List<ETLJobHistory> findPageByJobName(@Param("jobName") String jobName, Pageable pageable);
     
-    @Query("SELECT e FROM ETLJobHistory e WHERE e.jobName = :jobName AND e.status = :status ORDER BY e.startTime DESC")
-    List<ETLJobHistory> findByJobNameAndStatus(@Param("jobName") String jobName, @Param("status") String status);
+    @Query("SELECT e FROM ETLJobHistory e WHERE e.jobName = :jobName " +
+           "AND (e.startTime < :startTime OR (e.startTime = :startTime AND e.id < :id)) " +
+           "ORDER BY e.startTime DESC, e.id DESC")
+    List<ETLJobHistory> findPageByJobNameBefore(@Param("jobName") String jobName,
+                                                @Param("startTime") LocalDateTime startTime,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
     
-    @Query("SELECT e FROM ETLJobHistory e WHERE e.startTime >= :startDate ORDER BY e.startTime DESC")
-    List<ETLJobHistory> findJobsAfterDate(@Param("startDate") LocalDateTime startDate);
+    /**
+     * Keyset pages over IDX_JOB_START_TIME (START_TIME, JOB_ID), newest first
+     */
+    @Query("SELECT e FROM ETLJobHistory e WHERE e.startTime >= :startDate ORDER BY e.startTime DESC, e.id DESC")
+    List<ETLJobHistory> findPageAfterDate(@Param("startDate") LocalDateTime startDate, Pageable pageable);
+    
+    @Query("SELECT e FROM ETLJobHistory e WHERE e.startTime >= :startDate " +
+           "AND (e.startTime < :startTime OR (e.startTime = :startTime AND e.id < :id)) " +
+           "ORDER BY e.startTime DESC, e.id DESC")
+    List<ETLJobHistory> findPageAfterDateBefore(@Param("startDate") LocalDateTime startDate,
+                                                @Param("startTime") LocalDateTime startTime,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
     
     Optional<ETLJobHistory> findTopByJobNameOrderByStartTimeDesc(String jobName);
     
     @Query("SELECT COUNT(e) FROM ETLJobHistory e WHERE e.jobName = :jobName AND e.status = :status")
     long countByJobNameAndStatus(@Param("jobName") String jobName, @Param("status") String status);
+    
+    @Query("SELECT new com.lunar.stripelunar.model.JobStatusCount(e.jobName, e.status, COUNT(e)) " +
+           "FROM ETLJobHistory e GROUP BY e.jobName, e.status")
+    List<JobStatusCount> countGroupedByJobNameAndStatus();
+    
+    /**
+     * Most recent execution of every job name. The subquery reads only IDX_JOB_NAME_START_TIME
+     * (JOB_NAME, START_TIME, JOB_ID) to pick one ID per job name, the latest START_TIME with ties
+     * going to the highest ID; just those rows are then fetched by primary key.
+     */
+    @Query(value = "SELECT h.* FROM {h-schema}ETL_JOB_HISTORY h WHERE h.JOB_ID IN (" +
+                   "SELECT MAX(l.JOB_ID) KEEP (DENSE_RANK LAST ORDER BY l.START_TIME) " +
+                   "FROM {h-schema}ETL_JOB_HISTORY l GROUP BY l.JOB_NAME)",
+           nativeQuery = true)
+    List<ETLJobHistory> findLatestPerJobName();
 }
@@ -0,0 +1,22 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.PaymentSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Latest payments of several customers, limited per customer in the database
+ */
+public interface PaymentRecentRepository {
+
+    /**
+     * Newest payments of each customer, ordered by customer and then newest first. Callers
+     * keep the id list within Oracle's IN-list limit, see InClauseUtil.
+     *
+     * @param customerIds Customers to read payments for
+     * @param perCustomer Maximum number of payments returned for each customer
+     * @return At most perCustomer payment summaries per customer
+     */
+    List<PaymentSummary> findRecentSummariesByCustomerIds(Collection<String> customerIds, int perCustomer);
+}
@@ -0,0 +1,48 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.PaymentSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public class PaymentRecentRepositoryImpl implements PaymentRecentRepository {
+
+    // ROW_NUMBER walks IDX_PAYMENT_CUSTOMER_CREATED per customer, so only the returned rows leave the database
+    private static final String RECENT_SQL = "SELECT PAYMENT_ID, CUSTOMER_ID, AMOUNT, CURRENCY, STATUS, CREATED_DATE, UPDATED_DATE " +
+            "FROM (SELECT p.PAYMENT_ID, p.CUSTOMER_ID, p.AMOUNT, p.CURRENCY, p.STATUS, p.CREATED_DATE, p.UPDATED_DATE, " +
+            "ROW_NUMBER() OVER (PARTITION BY p.CUSTOMER_ID ORDER BY p.CREATED_DATE DESC, p.PAYMENT_ID DESC) AS RN " +
+            "FROM %s.STRIPE_PAYMENTS p WHERE p.CUSTOMER_ID IN (:customerIds)) " +
+            "WHERE RN <= :perCustomer ORDER BY CUSTOMER_ID, RN";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public PaymentRecentRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                       @Value("${spring.jpa.properties.hibernate.default_schema:STRIPE_LUNAR}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    @Override
+    public List<PaymentSummary> findRecentSummariesByCustomerIds(Collection<String> customerIds, int perCustomer) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("customerIds", customerIds)
+                .addValue("perCustomer", perCustomer);
+        return jdbcTemplate.query(String.format(RECENT_SQL, schema), params, (rs, rowNum) -> new PaymentSummary(
+                rs.getString("PAYMENT_ID"), rs.getString("CUSTOMER_ID"), rs.getBigDecimal("AMOUNT"),
+                rs.getString("CURRENCY"), rs.getString("STATUS"),
+                toLocalDateTime(rs, "CREATED_DATE"), toLocalDateTime(rs, "UPDATED_DATE")));
+    }
+
+    private static LocalDateTime toLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
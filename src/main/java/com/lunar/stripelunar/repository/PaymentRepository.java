@@ -1,12 +1,47 @@
 package com.lunar.stripelunar.repository;
 
+import com.lunar.stripelunar.model.CustomerCurrencyTotal;
+import com.lunar.stripelunar.model.DataVersion;
 import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.model.PaymentOwner;
+import com.lunar.stripelunar.model.PaymentSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentSearchRepository, PaymentRecentRepository {
     List<Payment> findByCustomerId(String customerId);
+
+    /**
+     * Payments among the ids that already exist, with the customer they are stored under
+     */
+    @Query("SELECT new com.lunar.stripelunar.model.PaymentOwner(p.id, p.customerId) FROM Payment p WHERE p.id IN :ids")
+    List<PaymentOwner> findOwnersByIds(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT new com.lunar.stripelunar.model.PaymentSummary(p.id, p.customerId, p.amount, p.currency, p.status, p.createdDate, p.updatedDate) " +
+           "FROM Payment p")
+    List<PaymentSummary> findAllSummaries();
+
+    @Query("SELECT new com.lunar.stripelunar.model.PaymentSummary(p.id, p.customerId, p.amount, p.currency, p.status, p.createdDate, p.updatedDate) " +
+           "FROM Payment p WHERE p.customerId = :customerId")
+    List<PaymentSummary> findSummariesByCustomerId(@Param("customerId") String customerId);
+
+    /**
+     * Payment count and amount per customer and currency. Callers keep the id list
+     * within Oracle's IN-list limit, see InClauseUtil.
+     */
+    @Query("SELECT new com.lunar.stripelunar.model.CustomerCurrencyTotal(p.customerId, p.currency, COUNT(p), SUM(p.amount)) " +
+           "FROM Payment p WHERE p.customerId IN :customerIds GROUP BY p.customerId, p.currency")
+    List<CustomerCurrencyTotal> findTotalsByCustomerIds(@Param("customerIds") Collection<String> customerIds);
+
+    /**
+     * Row count and latest update of the table, reloaded by DataVersionTracker
+     */
+    @Query("SELECT new com.lunar.stripelunar.model.DataVersion(COUNT(p), MAX(p.updatedDate)) FROM Payment p")
+    DataVersion findDataVersion();
 }
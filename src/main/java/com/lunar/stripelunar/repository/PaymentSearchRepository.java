@@ -0,0 +1,22 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
+import com.lunar.stripelunar.model.PaymentSummary;
+
+import java.util.List;
+
+/**
+ * Dynamic payment search, only the supplied filters end up in the WHERE clause
+ * so Oracle can pick the matching composite index.
+ */
+public interface PaymentSearchRepository {
+
+    /**
+     * Find payments matching the criteria ordered by created date and id, newest first
+     *
+     * @param criteria Search filters and keyset position
+     * @param maxResults Maximum number of rows to return
+     * @return Matching payment summaries
+     */
+    List<PaymentSummary> search(PaymentSearchCriteria criteria, int maxResults);
+}
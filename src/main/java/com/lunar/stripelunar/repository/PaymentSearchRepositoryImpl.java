@@ -0,0 +1,78 @@
+package com.lunar.stripelunar.repository;
+
+import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
+import com.lunar.stripelunar.model.PaymentSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentSearchRepositoryImpl implements PaymentSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PaymentSummary> search(PaymentSearchCriteria criteria, int maxResults) {
+        // Hibernate's builder, for explicit null ordering
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<PaymentSummary> query = cb.createQuery(PaymentSummary.class);
+        Root<Payment> payment = query.from(Payment.class);
+        Path<LocalDateTime> createdDate = payment.get("createdDate");
+        Path<String> id = payment.get("id");
+
+        query.select(cb.construct(PaymentSummary.class,
+                id,
+                payment.get("customerId"),
+                payment.get("amount"),
+                payment.get("currency"),
+                payment.get("status"),
+                createdDate,
+                payment.get("updatedDate")));
+
+        // Rows without a created date are kept and come first, as in Oracle's default DESC
+        // order; only the created-date range excludes them
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(payment.get("status"), criteria.status()));
+        }
+        if (criteria.currency() != null) {
+            predicates.add(cb.equal(payment.get("currency"), criteria.currency()));
+        }
+        if (criteria.customerId() != null) {
+            predicates.add(cb.equal(payment.get("customerId"), criteria.customerId()));
+        }
+        if (criteria.createdFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdDate, criteria.createdFrom()));
+        }
+        if (criteria.createdTo() != null) {
+            predicates.add(cb.lessThan(createdDate, criteria.createdTo()));
+        }
+        if (criteria.after() != null && criteria.after().createdDate() == null) {
+            // Still in the leading undated rows: the rest of them, then every dated row
+            predicates.add(cb.or(
+                    cb.and(cb.isNull(createdDate), cb.lessThan(id, criteria.after().id())),
+                    cb.isNotNull(createdDate)));
+        } else if (criteria.after() != null) {
+            LocalDateTime afterCreated = criteria.after().createdDate();
+            predicates.add(cb.or(
+                    cb.lessThan(createdDate, afterCreated),
+                    cb.and(cb.equal(createdDate, afterCreated), cb.lessThan(id, criteria.after().id()))));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(createdDate, true), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+}
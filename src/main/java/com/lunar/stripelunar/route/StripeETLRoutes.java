@@ -1,11 +1,18 @@
 package com.lunar.stripelunar.route;
 
+import com.lunar.stripelunar.cache.DataVersionTracker;
+import com.lunar.stripelunar.component.ConditionalGetProcessor;
 import com.lunar.stripelunar.component.ErrorHandlingProcessor;
 import com.lunar.stripelunar.component.ETLMetricsProcessor;
+import com.lunar.stripelunar.component.ResponseEncodingProcessor;
 import com.lunar.stripelunar.component.StripeETLProcessor;
+import com.lunar.stripelunar.model.BulkFetchRequest;
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
 import com.lunar.stripelunar.service.StripeService;
 import lombok.RequiredArgsConstructor;
+import org.apache.camel.Message;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.dataformat.JsonLibrary;
 import org.apache.camel.model.rest.RestBindingMode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -18,6 +25,9 @@ public class StripeETLRoutes extends RouteBuilder {
     private final StripeETLProcessor stripeETLProcessor;
     private final ErrorHandlingProcessor errorHandlingProcessor;
     private final ETLMetricsProcessor etlMetricsProcessor;
+    private final ConditionalGetProcessor conditionalGetProcessor;
+    private final DataVersionTracker dataVersionTracker;
+    private final ResponseEncodingProcessor responseEncodingProcessor;
 
     @Override
     public void configure() throws Exception {
@@ -33,54 +43,144 @@ public class StripeETLRoutes extends RouteBuilder {
         onException(Exception.class)
             .handled(true)
             .process(errorHandlingProcessor)
+            .process(responseEncodingProcessor)
             .log("Error handled for ${exchangeId}");
             
         // Configure REST DSL
+        // Binding is off: each route ends with responseEncodingProcessor, which negotiates
+        // compact JSON, Smile or CBOR and compresses large responses
         restConfiguration()
                 .component("servlet")
-                .bindingMode(RestBindingMode.json)
-                .dataFormatProperty("prettyPrint", "true")
+                .bindingMode(RestBindingMode.off)
                 .apiContextPath("/api-doc")
                 .apiProperty("api.title", "Stripe Lunar ETL API")
                 .apiProperty("api.version", "1.0.0");
 
         // Define direct routes first
+        // Read routes answer If-None-Match from in-memory version counters before touching the database
+        // List routes return slim summaries unless fields=full asks for every column
         from("direct:getAllCustomers")
-            .bean(stripeService, "getAllCustomers");
+            .setProperty(ConditionalGetProcessor.ETAG_PROPERTY, method(dataVersionTracker, "customersETag(${header.fields})"))
+            .process(conditionalGetProcessor)
+            .choice()
+                .when(header("fields").isEqualTo(DataVersionTracker.FIELDS_FULL))
+                    .bean(stripeService, "getAllCustomers")
+                .otherwise()
+                    .bean(stripeService, "getCustomerSummaries")
+            .end()
+            .process(responseEncodingProcessor);
             
         from("direct:syncCustomers")
             .setHeader("operation", constant("syncCustomers"))
             .process(etlMetricsProcessor)
-            .process(stripeETLProcessor);
+            .process(stripeETLProcessor)
+            .process(responseEncodingProcessor);
             
         from("direct:getCustomerById")
-            .bean(stripeService, "getCustomer(${header.id})");
+            .setProperty(ConditionalGetProcessor.ETAG_PROPERTY, method(dataVersionTracker, "customerETag(${header.id})"))
+            .process(conditionalGetProcessor)
+            .bean(stripeService, "getCustomer(${header.id})")
+            .process(responseEncodingProcessor);
+            
+        from("direct:getCustomersByEmail")
+            .bean(stripeService, "getCustomersByEmail(${header.email})")
+            .process(responseEncodingProcessor);
+            
+        from("direct:searchCustomers")
+            .process(exchange -> {
+                Message in = exchange.getIn();
+                in.setBody(stripeService.searchCustomers(
+                        in.getHeader("q", String.class),
+                        in.getHeader("limit", 0, Integer.class)));
+            })
+            .process(responseEncodingProcessor);
+            
+        from("direct:getCustomersWithPayments")
+            .process(exchange -> {
+                Message in = exchange.getIn();
+                in.setBody(stripeService.getCustomersWithPayments(
+                        in.getHeader("page", 0, Integer.class),
+                        in.getHeader("size", 0, Integer.class),
+                        in.getHeader("recent", 0, Integer.class)));
+            })
+            .process(responseEncodingProcessor);
+            
+        from("direct:getCustomersBulk")
+            .unmarshal().json(JsonLibrary.Jackson, BulkFetchRequest.class)
+            .process(exchange -> exchange.getIn().setBody(
+                    stripeService.getCustomers(exchange.getIn().getBody(BulkFetchRequest.class).ids())))
+            .process(responseEncodingProcessor);
             
         from("direct:getAllPayments")
-            .bean(stripeService, "getAllPayments");
+            .setProperty(ConditionalGetProcessor.ETAG_PROPERTY, method(dataVersionTracker, "paymentsETag(${header.fields})"))
+            .process(conditionalGetProcessor)
+            .choice()
+                .when(header("fields").isEqualTo(DataVersionTracker.FIELDS_FULL))
+                    .bean(stripeService, "getAllPayments")
+                .otherwise()
+                    .bean(stripeService, "getPaymentSummaries")
+            .end()
+            .process(responseEncodingProcessor);
             
         from("direct:syncPayments")
             .setHeader("operation", constant("syncPayments"))
             .process(etlMetricsProcessor)
-            .process(stripeETLProcessor);
+            .process(stripeETLProcessor)
+            .process(responseEncodingProcessor);
             
         from("direct:getPaymentById")
-            .bean(stripeService, "getPayment(${header.id})");
+            .setProperty(ConditionalGetProcessor.ETAG_PROPERTY, method(dataVersionTracker, "paymentETag(${header.id})"))
+            .process(conditionalGetProcessor)
+            .bean(stripeService, "getPayment(${header.id})")
+            .process(responseEncodingProcessor);
+            
+        from("direct:searchPayments")
+            .process(exchange -> {
+                Message in = exchange.getIn();
+                PaymentSearchCriteria criteria = PaymentSearchCriteria.fromQuery(
+                        in.getHeader("status", String.class),
+                        in.getHeader("currency", String.class),
+                        in.getHeader("customerId", String.class),
+                        in.getHeader("createdFrom", String.class),
+                        in.getHeader("createdTo", String.class),
+                        in.getHeader("cursor", String.class),
+                        in.getHeader("limit", String.class));
+                in.setBody(stripeService.searchPayments(criteria));
+            })
+            .process(responseEncodingProcessor);
+            
+        from("direct:getPaymentsBulk")
+            .unmarshal().json(JsonLibrary.Jackson, BulkFetchRequest.class)
+            .process(exchange -> exchange.getIn().setBody(
+                    stripeService.getPayments(exchange.getIn().getBody(BulkFetchRequest.class).ids())))
+            .process(responseEncodingProcessor);
             
         from("direct:getPaymentsByCustomerId")
-            .bean(stripeService, "getPaymentsByCustomer(${header.customerId})");
+            .setProperty(ConditionalGetProcessor.ETAG_PROPERTY,
+                    method(dataVersionTracker, "customerPaymentsETag(${header.customerId}, ${header.fields})"))
+            .process(conditionalGetProcessor)
+            .choice()
+                .when(header("fields").isEqualTo(DataVersionTracker.FIELDS_FULL))
+                    .bean(stripeService, "getPaymentsByCustomer(${header.customerId})")
+                .otherwise()
+                    .bean(stripeService, "getPaymentSummariesByCustomer(${header.customerId})")
+            .end()
+            .process(responseEncodingProcessor);
             
         from("direct:syncAll")
             .setHeader("operation", constant("syncAll"))
             .process(etlMetricsProcessor)
-            .process(stripeETLProcessor);
+            .process(stripeETLProcessor)
+            .process(responseEncodingProcessor);
             
         from("direct:getStatus")
             .setHeader("operation", constant("status"))
-            .process(stripeETLProcessor);
+            .process(stripeETLProcessor)
+            .process(responseEncodingProcessor);
             
         from("direct:getMetrics")
-            .bean(etlMetricsProcessor, "getAllMetrics");
+            .bean(etlMetricsProcessor, "getAllMetrics")
+            .process(responseEncodingProcessor);
 
         // REST endpoints
         rest("/stripe")
@@ -88,7 +188,7 @@ public class StripeETLRoutes extends RouteBuilder {
             
             // Customer endpoints
             .get("/customers")
-                .description("Get all customers from database")
+                .description("Get customer summaries from database (fields=full for every column)")
                 .to("direct:getAllCustomers")
             
             .get("/customers/sync")
@@ -96,13 +196,34 @@ public class StripeETLRoutes extends RouteBuilder {
                 .produces(MediaType.APPLICATION_JSON_VALUE)
                 .to("direct:syncCustomers")
             
+            .get("/customers/by-email")
+                .description("Find customers by email, case-insensitive")
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:getCustomersByEmail")
+            
+            .get("/customers/search")
+                .description("Type-ahead customer search by email or name prefix")
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:searchCustomers")
+            
+            .get("/customers/with-payments")
+                .description("Page of customers with their recent payments and totals per currency")
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:getCustomersWithPayments")
+            
+            .post("/customers/bulk")
+                .description("Get up to stripe.bulk.max-ids customers by ID, in request order")
+                .consumes(MediaType.APPLICATION_JSON_VALUE)
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:getCustomersBulk")
+            
             .get("/customers/{id}")
                 .description("Get customer by ID")
                 .to("direct:getCustomerById")
             
             // Payment endpoints
             .get("/payments")
-                .description("Get all payments from database")
+                .description("Get payment summaries from database (fields=full for every column)")
                 .to("direct:getAllPayments")
             
             .get("/payments/sync")
@@ -110,12 +231,23 @@ public class StripeETLRoutes extends RouteBuilder {
                 .produces(MediaType.APPLICATION_JSON_VALUE)
                 .to("direct:syncPayments")
             
+            .get("/payments/search")
+                .description("Search payments by status, currency, customer and created-date range, newest first")
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:searchPayments")
+            
+            .post("/payments/bulk")
+                .description("Get up to stripe.bulk.max-ids payments by ID, in request order")
+                .consumes(MediaType.APPLICATION_JSON_VALUE)
+                .produces(MediaType.APPLICATION_JSON_VALUE)
+                .to("direct:getPaymentsBulk")
+            
             .get("/payments/{id}")
                 .description("Get payment by ID")
                 .to("direct:getPaymentById")
             
             .get("/customers/{customerId}/payments")
-                .description("Get payments by customer ID")
+                .description("Get payment summaries by customer ID (fields=full for every column)")
                 .to("direct:getPaymentsByCustomerId")
             
             // ETL operations
@@ -0,0 +1,153 @@
+package com.lunar.stripelunar.scheduler;
+
+import com.lunar.stripelunar.repository.ETLJobHistoryPartitionRepository;
+import com.lunar.stripelunar.service.ETLJobHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.lunar.stripelunar.repository.ETLJobHistoryPartitionRepository.INITIAL_PARTITION_BOUND;
+
+/**
+ * Retention for the monthly partitions of ETL_JOB_HISTORY. Months past the retention window are
+ * optionally archived to gzip CSV and then dropped as whole partitions; months past the compression
+ * age are rebuilt compressed. Daily rollups and summaries are kept in ETL_JOB_DAILY_ROLLUP and are
+ * not affected.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobHistoryRetentionScheduler {
+
+    private static final DateTimeFormatter ARCHIVE_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final ETLJobHistoryPartitionRepository partitionRepository;
+    private final ETLJobHistoryService etlJobHistoryService;
+
+    @Value("${scheduler.job-history-retention.enabled:true}")
+    private boolean retentionEnabled = true;
+
+    // Whole months of history kept, counting back from the start of the current month
+    @Value("${scheduler.job-history-retention.retention-months:12}")
+    private int retentionMonths = 12;
+
+    // Months older than this are compressed; 0 disables compression
+    @Value("${scheduler.job-history-retention.compress-after-months:3}")
+    private int compressAfterMonths = 3;
+
+    // Dropped months are first written here as gzip CSV; empty disables archiving
+    @Value("${scheduler.job-history-retention.archive-dir:}")
+    private String archiveDir = "";
+
+    /**
+     * Apply retention and compression
+     * Runs at 3:00 AM on the 2nd day of each month, after the monthly summary
+     */
+    @Scheduled(cron = "${scheduler.job-history-retention.cron:0 0 3 2 * ?}")
+    public void applyRetention() {
+        if (!retentionEnabled) {
+            log.debug("Job history retention is disabled. Skipping.");
+            return;
+        }
+        applyRetention(LocalDate.now().withDayOfMonth(1));
+    }
+
+    void applyRetention(LocalDate currentMonth) {
+        LocalDate retainFrom = currentMonth.minusMonths(retentionMonths);
+        int dropped = dropExpiredMonths(retainFrom);
+        int compressed = compressAfterMonths > 0
+                ? compressAgedMonths(retainFrom, currentMonth.minusMonths(compressAfterMonths))
+                : 0;
+        log.info("Job history retention done. Partitions dropped: {}, compressed: {}, keeping jobs from {}",
+                dropped, compressed, retainFrom);
+    }
+
+    private int dropExpiredMonths(LocalDate retainFrom) {
+        int dropped = 0;
+        boolean initialHandled = false;
+        for (LocalDate month : partitionRepository.findMonthsWithJobsBefore(retainFrom)) {
+            if (month.isBefore(INITIAL_PARTITION_BOUND)) {
+                // The initial partition spans every month before the bound; empty it only once all of them expired
+                if (initialHandled || INITIAL_PARTITION_BOUND.isAfter(retainFrom)) {
+                    continue;
+                }
+                initialHandled = true;
+                if (archive(null, INITIAL_PARTITION_BOUND.atStartOfDay(), "before-" + INITIAL_PARTITION_BOUND.format(ARCHIVE_MONTH))) {
+                    partitionRepository.truncateInitialPartition();
+                    dropped++;
+                }
+            } else if (archive(month.atStartOfDay(), month.plusMonths(1).atStartOfDay(), month.format(ARCHIVE_MONTH))) {
+                partitionRepository.dropPartition(month);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private int compressAgedMonths(LocalDate retainFrom, LocalDate compressBefore) {
+        int compressed = 0;
+        boolean initialHandled = false;
+        for (LocalDate month : partitionRepository.findMonthsWithJobsBefore(compressBefore)) {
+            if (month.isBefore(retainFrom)) {
+                // Not dropped because archiving failed or it shares the initial partition
+                continue;
+            }
+            if (month.isBefore(INITIAL_PARTITION_BOUND)) {
+                if (initialHandled) {
+                    continue;
+                }
+                initialHandled = true;
+            }
+            if (!partitionRepository.isCompressed(month)) {
+                partitionRepository.compressPartition(month);
+                compressed++;
+            }
+        }
+        return compressed;
+    }
+
+    /**
+     * Write the jobs that started in [from, to) to archive-dir; true when the partition may be removed
+     */
+    private boolean archive(LocalDateTime from, LocalDateTime to, String label) {
+        if (archiveDir == null || archiveDir.isBlank()) {
+            return true;
+        }
+        Path file = Paths.get(archiveDir, "etl-job-history-" + label + ".csv.gz");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8)) {
+                long rows = etlJobHistoryService.exportJobHistory(null, from, to, writer);
+                log.info("Archived {} job history rows to {}", rows, file);
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Failed to archive job history to {}; keeping the partition", file, e);
+            deletePartialArchive(file);
+            return false;
+        }
+    }
+
+    private void deletePartialArchive(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete partial archive {}", file, e);
+        }
+    }
+}
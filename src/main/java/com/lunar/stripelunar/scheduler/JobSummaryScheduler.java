@@ -1,26 +1,35 @@
 package com.lunar.stripelunar.scheduler;
 
-import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobSummaryTotals;
 import com.lunar.stripelunar.notification.NotificationService;
-import com.lunar.stripelunar.repository.ETLJobHistoryRepository;
+import com.lunar.stripelunar.repository.ETLJobDailyRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Scheduler for generating and sending ETL job summaries
+ * Scheduler for generating and sending ETL job summaries. Totals per job name are summed by the
+ * database from ETL_JOB_DAILY_ROLLUP, so the work per summary depends on the number of job names
+ * and days, not on how many jobs ran.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JobSummaryScheduler {
 
-    private final ETLJobHistoryRepository etlJobHistoryRepository;
+    // Display labels for the built-in jobs; any other job name is reported under its own name
+    private static final Map<String, String> SUMMARY_LABELS = Map.of(
+            "syncCustomers", "Customer Sync",
+            "syncPayments", "Payment Sync",
+            "syncAll", "Full Sync");
+    
+    private final ETLJobDailyRollupRepository etlJobDailyRollupRepository;
     private final NotificationService notificationService;
     
     @Value("${scheduler.job-summary.enabled:true}")
@@ -39,11 +48,8 @@ public class JobSummaryScheduler {
         
         log.info("Generating daily ETL job summary");
         
-        // Get jobs from the last 24 hours
-        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
-        List<ETLJobHistory> recentJobs = etlJobHistoryRepository.findJobsAfterDate(yesterday);
-        
-        generateAndSendSummary("Daily", recentJobs);
+        // Jobs started yesterday; today is left for tomorrow's summary
+        generateAndSendSummary("Daily", sumFullDaysBeforeToday(1));
     }
     
     /**
@@ -59,11 +65,8 @@ public class JobSummaryScheduler {
         
         log.info("Generating weekly ETL job summary");
         
-        // Get jobs from the last 7 days
-        LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
-        List<ETLJobHistory> recentJobs = etlJobHistoryRepository.findJobsAfterDate(lastWeek);
-        
-        generateAndSendSummary("Weekly", recentJobs);
+        // Jobs started in the 7 full days before today
+        generateAndSendSummary("Weekly", sumFullDaysBeforeToday(7));
     }
     
     /**
@@ -79,79 +82,45 @@ public class JobSummaryScheduler {
         
         log.info("Generating monthly ETL job summary");
         
-        // Get jobs from the last 30 days
-        LocalDateTime lastMonth = LocalDateTime.now().minusDays(30);
-        List<ETLJobHistory> recentJobs = etlJobHistoryRepository.findJobsAfterDate(lastMonth);
-        
-        generateAndSendSummary("Monthly", recentJobs);
+        // Jobs started in the 30 full days before today
+        generateAndSendSummary("Monthly", sumFullDaysBeforeToday(30));
+    }
+    
+    /**
+     * Totals per job name over [today - days, today), so consecutive summaries of one period
+     * never count a day twice
+     */
+    private List<JobSummaryTotals> sumFullDaysBeforeToday(int days) {
+        LocalDate today = LocalDate.now();
+        return etlJobDailyRollupRepository.sumByJobNameBetween(today.minusDays(days), today);
     }
     
     /**
-     * Generate and send job summary for a specific job type and period
+     * Generate and send job summary for each job name that ran in the period
      * 
      * @param period The period for the summary (Daily, Weekly, Monthly)
-     * @param jobs The list of jobs to include in the summary
+     * @param totals Totals per job name for the period
      */
-    private void generateAndSendSummary(String period, List<ETLJobHistory> jobs) {
-        // Count jobs by type and status
-        int customerSyncSuccess = 0;
-        int customerSyncFailed = 0;
-        int paymentSyncSuccess = 0;
-        int paymentSyncFailed = 0;
-        int fullSyncSuccess = 0;
-        int fullSyncFailed = 0;
-        int totalRecordsProcessed = 0;
-        
-        for (ETLJobHistory job : jobs) {
-            // Add to total records processed
-            if (job.getRecordsProcessed() != null) {
-                totalRecordsProcessed += job.getRecordsProcessed();
+    void generateAndSendSummary(String period, List<JobSummaryTotals> totals) {
+        long totalJobs = 0;
+        for (JobSummaryTotals jobTotals : totals) {
+            long completed = jobTotals.completedCount() != null ? jobTotals.completedCount() : 0;
+            long failed = jobTotals.failedCount() != null ? jobTotals.failedCount() : 0;
+            long records = jobTotals.recordsProcessed() != null ? jobTotals.recordsProcessed() : 0;
+            if (completed == 0 && failed == 0) {
+                continue;
             }
+            totalJobs += completed + failed;
             
-            // Count by job type and status
-            switch (job.getJobName()) {
-                case "syncCustomers":
-                    if (job.isCompleted()) {
-                        customerSyncSuccess++;
-                    } else if (job.isFailed()) {
-                        customerSyncFailed++;
-                    }
-                    break;
-                    
-                case "syncPayments":
-                    if (job.isCompleted()) {
-                        paymentSyncSuccess++;
-                    } else if (job.isFailed()) {
-                        paymentSyncFailed++;
-                    }
-                    break;
-                    
-                case "syncAll":
-                    if (job.isCompleted()) {
-                        fullSyncSuccess++;
-                    } else if (job.isFailed()) {
-                        fullSyncFailed++;
-                    }
-                    break;
-            }
-        }
-        
-        // Send summary notifications for each job type
-        if (customerSyncSuccess > 0 || customerSyncFailed > 0) {
-            notificationService.sendJobSummaryNotification(
-                period + " Customer Sync", customerSyncSuccess, customerSyncFailed, totalRecordsProcessed);
-        }
-        
-        if (paymentSyncSuccess > 0 || paymentSyncFailed > 0) {
+            String label = SUMMARY_LABELS.getOrDefault(jobTotals.jobName(), jobTotals.jobName());
             notificationService.sendJobSummaryNotification(
-                period + " Payment Sync", paymentSyncSuccess, paymentSyncFailed, totalRecordsProcessed);
+                period + " " + label, toInt(completed), toInt(failed), toInt(records));
         }
         
-        if (fullSyncSuccess > 0 || fullSyncFailed > 0) {
-            notificationService.sendJobSummaryNotification(
-                period + " Full Sync", fullSyncSuccess, fullSyncFailed, totalRecordsProcessed);
-        }
-        
-        log.info("{} job summary generated and sent. Total jobs: {}", period, jobs.size());
+        log.info("{} job summary generated and sent. Total jobs: {}", period, totalJobs);
+    }
+    
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,13 @@
 package com.lunar.stripelunar.service;
 
+import com.lunar.stripelunar.model.ETLJobDailyRollup;
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobHistoryCursor;
+import com.lunar.stripelunar.model.JobHistoryPage;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -9,30 +15,21 @@ import java.util.Optional;
 public interface ETLJobHistoryService {
     
     /**
-     * Start a new ETL job and record it in the history
+     * Write a batch of job rows whose IDs were already allocated, in one transaction. Finished jobs
+     * are added to the daily rollup; nothing is notified until the caller sees the commit succeed.
      * 
-     * @param jobName Name of the ETL job
-     * @return The created ETL job history record
+     * @param newJobs Jobs not yet in the database, inserted with their current state
+     * @param updatedJobs Jobs already in the database, whose end state is updated
      */
-    ETLJobHistory startJob(String jobName);
+    void recordJobs(List<ETLJobHistory> newJobs, List<ETLJobHistory> updatedJobs);
     
     /**
-     * Complete an ETL job successfully
+     * Send the completion or failure notification of each finished job. Call only once the jobs
+     * were committed by recordJobs, so a rolled back batch is never notified.
      * 
-     * @param jobId ID of the ETL job
-     * @param recordsProcessed Number of records processed
-     * @return The updated ETL job history record
+     * @param jobs Jobs just written; running jobs are skipped
      */
-    ETLJobHistory completeJob(Long jobId, Integer recordsProcessed);
-    
-    /**
-     * Mark an ETL job as failed
-     * 
-     * @param jobId ID of the ETL job
-     * @param errorMessage Error message describing the failure
-     * @return The updated ETL job history record
-     */
-    ETLJobHistory failJob(Long jobId, String errorMessage);
+    void notifyFinished(List<ETLJobHistory> jobs);
     
     /**
      * Get the most recent execution of a specific job
@@ -43,20 +40,24 @@ public interface ETLJobHistoryService {
     Optional<ETLJobHistory> getLastJobExecution(String jobName);
     
     /**
-     * Get all executions of a specific job
+     * Get one page of executions of a specific job, newest first
      * 
      * @param jobName Name of the ETL job
-     * @return List of job history records for the specified job
+     * @param limit Page size, 0 for the default of 100; capped at 1000
+     * @param before Position after which the page starts, or null for the first page
+     * @return The page and the cursor of the next one
      */
-    List<ETLJobHistory> getJobExecutions(String jobName);
+    JobHistoryPage getJobExecutions(String jobName, int limit, JobHistoryCursor before);
     
     /**
-     * Get all job executions after a specific date
+     * Get one page of job executions started on or after a date, newest first
      * 
      * @param startDate Start date for the query
-     * @return List of job history records after the specified date
+     * @param limit Page size, 0 for the default of 100; capped at 1000
+     * @param before Position after which the page starts, or null for the first page
+     * @return The page and the cursor of the next one
      */
-    List<ETLJobHistory> getJobsAfterDate(LocalDateTime startDate);
+    JobHistoryPage getJobsAfterDate(LocalDateTime startDate, int limit, JobHistoryCursor before);
     
     /**
      * Get job execution statistics
@@ -64,4 +65,24 @@ public interface ETLJobHistoryService {
      * @return Map containing statistics about job executions
      */
     java.util.Map<String, Object> getJobStatistics();
+    
+    /**
+     * Write every job matching the filters to CSV, streaming rows from the database
+     * 
+     * @param jobName Job name to match, or null for all jobs
+     * @param startFrom Earliest start time (inclusive), or null for no lower bound
+     * @param startTo Latest start time (exclusive), or null for no upper bound
+     * @param writer Writer to output the CSV data
+     * @return Number of rows written
+     * @throws IOException If an I/O error occurs
+     */
+    long exportJobHistory(String jobName, LocalDateTime startFrom, LocalDateTime startTo, Writer writer) throws IOException;
+    
+    /**
+     * Get per-day, per-job rollups of finished jobs
+     * 
+     * @param fromDate First day to include
+     * @return Rollup rows, newest day first
+     */
+    List<ETLJobDailyRollup> getDailyRollups(LocalDate fromDate);
 }
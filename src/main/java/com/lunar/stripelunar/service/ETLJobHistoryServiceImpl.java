@@ -1,80 +1,96 @@
 package com.lunar.stripelunar.service;
 
-import com.lunar.stripelunar.exception.ResourceNotFoundException;
+import com.lunar.stripelunar.model.ETLJobDailyRollup;
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobHistoryCursor;
+import com.lunar.stripelunar.model.JobHistoryPage;
+import com.lunar.stripelunar.model.JobStatusCount;
 import com.lunar.stripelunar.notification.NotificationService;
+import com.lunar.stripelunar.repository.ETLJobDailyRollupRepository;
+import com.lunar.stripelunar.repository.ETLJobHistoryBatchRepository;
 import com.lunar.stripelunar.repository.ETLJobHistoryRepository;
+import com.lunar.stripelunar.util.CsvExportUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ETLJobHistoryServiceImpl implements ETLJobHistoryService {
 
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 1000;
+
     private final ETLJobHistoryRepository etlJobHistoryRepository;
     private final NotificationService notificationService;
-
-    @Override
-    @Transactional
-    public ETLJobHistory startJob(String jobName) {
-        log.info("Starting ETL job: {}", jobName);
-        
-        ETLJobHistory job = ETLJobHistory.builder()
-                .jobName(jobName)
-                .startTime(LocalDateTime.now())
-                .status(ETLJobHistory.STATUS_RUNNING)
-                .build();
-        
-        return etlJobHistoryRepository.save(job);
+    private final ETLJobDailyRollupRepository etlJobDailyRollupRepository;
+    private final CsvExportUtil csvExportUtil;
+    private final ETLJobHistoryBatchRepository etlJobHistoryBatchRepository;
+    
+    // Statistics are served from memory for this long; job rows change far less often than dashboards poll
+    @Value("${stripe.jobs.statistics-ttl-ms:5000}")
+    private long statisticsTtlMillis = 5000;
+    
+    private record CachedStatistics(Map<String, Object> statistics, long computedAtNanos) {
     }
+    
+    private volatile CachedStatistics cachedStatistics;
+    
+    // Rows per round trip while streaming CSV exports
+    @Value("${stripe.jobs.export-fetch-size:500}")
+    private int exportFetchSize = 500;
 
     @Override
     @Transactional
-    public ETLJobHistory completeJob(Long jobId, Integer recordsProcessed) {
-        log.info("Completing ETL job with ID: {}, records processed: {}", jobId, recordsProcessed);
-        
-        ETLJobHistory job = etlJobHistoryRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("ETLJobHistory", "id", jobId));
-        
-        job.setEndTime(LocalDateTime.now());
-        job.setStatus(ETLJobHistory.STATUS_COMPLETED);
-        job.setRecordsProcessed(recordsProcessed);
-        
-        ETLJobHistory savedJob = etlJobHistoryRepository.save(job);
-        
-        // Send notification about job completion
-        notificationService.sendJobCompletionNotification(savedJob);
+    public void recordJobs(List<ETLJobHistory> newJobs, List<ETLJobHistory> updatedJobs) {
+        etlJobHistoryBatchRepository.insertAll(newJobs);
+        List<ETLJobHistory> missed = etlJobHistoryBatchRepository.updateAll(updatedJobs);
+        if (!missed.isEmpty()) {
+            // The job's first row never landed (its insert was dropped); write the final state instead,
+            // so the history row exists for every job the rollup below counts
+            log.warn("Job history update matched no row for job IDs {}; inserting their final state",
+                    missed.stream().map(ETLJobHistory::getId).toList());
+            etlJobHistoryBatchRepository.insertAll(missed);
+        }
         
-        return savedJob;
+        for (List<ETLJobHistory> jobs : List.of(newJobs, updatedJobs)) {
+            for (ETLJobHistory job : jobs) {
+                if (job.isCompleted() || job.isFailed()) {
+                    addToDailyRollup(job);
+                }
+            }
+        }
+        log.debug("Recorded job history batch. Inserted: {}, updated: {}", newJobs.size(), updatedJobs.size());
     }
 
     @Override
-    @Transactional
-    public ETLJobHistory failJob(Long jobId, String errorMessage) {
-        log.error("ETL job with ID: {} failed with error: {}", jobId, errorMessage);
-        
-        ETLJobHistory job = etlJobHistoryRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("ETLJobHistory", "id", jobId));
-        
-        job.setEndTime(LocalDateTime.now());
-        job.setStatus(ETLJobHistory.STATUS_FAILED);
-        job.setErrorMessage(errorMessage);
-        
-        ETLJobHistory savedJob = etlJobHistoryRepository.save(job);
-        
-        // Send notification about job failure
-        notificationService.sendJobFailureNotification(savedJob);
-        
-        return savedJob;
+    public void notifyFinished(List<ETLJobHistory> jobs) {
+        for (ETLJobHistory job : jobs) {
+            if (job.isCompleted()) {
+                notificationService.sendJobCompletionNotification(job);
+            } else if (job.isFailed()) {
+                notificationService.sendJobFailureNotification(job);
+            }
+        }
     }
 
     @Override
@@ -83,50 +99,109 @@ public class ETLJobHistoryServiceImpl implements ETLJobHistoryService {
     }
 
     @Override
-    public List<ETLJobHistory> getJobExecutions(String jobName) {
-        return etlJobHistoryRepository.findByJobNameOrderByStartTimeDesc(jobName);
+    public JobHistoryPage getJobExecutions(String jobName, int limit, JobHistoryCursor before) {
+        int pageLimit = pageLimit(limit);
+        // Fetch one extra row to learn whether another page follows
+        PageRequest page = PageRequest.of(0, pageLimit + 1);
+        List<ETLJobHistory> rows = before == null
+                ? etlJobHistoryRepository.findPageByJobName(jobName, page)
+                : etlJobHistoryRepository.findPageByJobNameBefore(jobName, before.startTime(), before.id(), page);
+        return toPage(rows, pageLimit);
     }
 
     @Override
-    public List<ETLJobHistory> getJobsAfterDate(LocalDateTime startDate) {
-        return etlJobHistoryRepository.findJobsAfterDate(startDate);
+    public JobHistoryPage getJobsAfterDate(LocalDateTime startDate, int limit, JobHistoryCursor before) {
+        int pageLimit = pageLimit(limit);
+        PageRequest page = PageRequest.of(0, pageLimit + 1);
+        List<ETLJobHistory> rows = before == null
+                ? etlJobHistoryRepository.findPageAfterDate(startDate, page)
+                : etlJobHistoryRepository.findPageAfterDateBefore(startDate, before.startTime(), before.id(), page);
+        return toPage(rows, pageLimit);
+    }
+
+    private static int pageLimit(int limit) {
+        return limit <= 0 ? DEFAULT_PAGE_LIMIT : Math.min(limit, MAX_PAGE_LIMIT);
+    }
+
+    private static JobHistoryPage toPage(List<ETLJobHistory> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new JobHistoryPage(rows, null, limit);
+        }
+        List<ETLJobHistory> page = new ArrayList<>(rows.subList(0, limit));
+        ETLJobHistory last = page.get(limit - 1);
+        return new JobHistoryPage(page, new JobHistoryCursor(last.getStartTime(), last.getId()).encode(), limit);
     }
 
     @Override
     public Map<String, Object> getJobStatistics() {
+        CachedStatistics cached = cachedStatistics;
+        if (cached != null && System.nanoTime() - cached.computedAtNanos() < TimeUnit.MILLISECONDS.toNanos(statisticsTtlMillis)) {
+            return cached.statistics();
+        }
+        Map<String, Object> statistics = Collections.unmodifiableMap(computeJobStatistics());
+        cachedStatistics = new CachedStatistics(statistics, System.nanoTime());
+        return statistics;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long exportJobHistory(String jobName, LocalDateTime startFrom, LocalDateTime startTo, Writer writer) throws IOException {
+        try (Stream<ETLJobHistory> jobs = etlJobHistoryRepository.streamForExport(jobName, startFrom, startTo, exportFetchSize)) {
+            return csvExportUtil.exportJobHistoryToCsv(jobs, writer);
+        }
+    }
+    
+    @Override
+    public List<ETLJobDailyRollup> getDailyRollups(LocalDate fromDate) {
+        return etlJobDailyRollupRepository.findFromDate(fromDate);
+    }
+    
+    /**
+     * Count a finished job into the rollup row of the day it started, in the same transaction
+     */
+    private void addToDailyRollup(ETLJobHistory job) {
+        LocalDateTime startTime = job.getStartTime() != null ? job.getStartTime() : job.getEndTime();
+        if (startTime == null) {
+            return;
+        }
+        long durationMs = job.getEndTime() != null
+                ? Math.max(0, Duration.between(startTime, job.getEndTime()).toMillis())
+                : 0;
+        etlJobDailyRollupRepository.addJob(
+                startTime.toLocalDate(),
+                job.getJobName(),
+                job.isCompleted() ? 1 : 0,
+                job.isFailed() ? 1 : 0,
+                job.getRecordsProcessed() != null ? job.getRecordsProcessed() : 0,
+                durationMs);
+    }
+    
+    /**
+     * Two round trips whatever the number of job names: one GROUP BY for the counts
+     * and one index-driven query for the latest execution of each job
+     */
+    private Map<String, Object> computeJobStatistics() {
         Map<String, Object> statistics = new HashMap<>();
+        Map<String, Map<String, Long>> jobsByName = new TreeMap<>();
+        Map<String, Long> jobsByStatus = new HashMap<>();
+        long totalJobs = 0;
+        
+        for (JobStatusCount row : etlJobHistoryRepository.countGroupedByJobNameAndStatus()) {
+            jobsByName.computeIfAbsent(row.jobName(), name -> new TreeMap<>()).put(row.status(), row.count());
+            jobsByStatus.merge(row.status(), row.count(), Long::sum);
+            totalJobs += row.count();
+        }
         
-        // Count total jobs
-        long totalJobs = etlJobHistoryRepository.count();
         statistics.put("totalJobs", totalJobs);
-        
-        // Count jobs by status
-        long completedJobs = etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_COMPLETED) +
-                             etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_COMPLETED) +
-                             etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_COMPLETED);
-        
-        long failedJobs = etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_FAILED) +
-                          etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_FAILED) +
-                          etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_FAILED);
-        
-        long runningJobs = etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_RUNNING) +
-                           etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_RUNNING) +
-                           etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_RUNNING);
-        
-        statistics.put("completedJobs", completedJobs);
-        statistics.put("failedJobs", failedJobs);
-        statistics.put("runningJobs", runningJobs);
-        
-        // Get last execution times for each job type
-        Optional<ETLJobHistory> lastCustomerSync = getLastJobExecution("syncCustomers");
-        Optional<ETLJobHistory> lastPaymentSync = getLastJobExecution("syncPayments");
-        Optional<ETLJobHistory> lastFullSync = getLastJobExecution("syncAll");
+        statistics.put("completedJobs", jobsByStatus.getOrDefault(ETLJobHistory.STATUS_COMPLETED, 0L));
+        statistics.put("failedJobs", jobsByStatus.getOrDefault(ETLJobHistory.STATUS_FAILED, 0L));
+        statistics.put("runningJobs", jobsByStatus.getOrDefault(ETLJobHistory.STATUS_RUNNING, 0L));
+        statistics.put("jobsByName", jobsByName);
         
         Map<String, Object> lastExecutions = new HashMap<>();
-        lastCustomerSync.ifPresent(job -> lastExecutions.put("syncCustomers", formatJobInfo(job)));
-        lastPaymentSync.ifPresent(job -> lastExecutions.put("syncPayments", formatJobInfo(job)));
-        lastFullSync.ifPresent(job -> lastExecutions.put("syncAll", formatJobInfo(job)));
-        
+        for (ETLJobHistory job : etlJobHistoryRepository.findLatestPerJobName()) {
+            lastExecutions.put(job.getJobName(), formatJobInfo(job));
+        }
         statistics.put("lastExecutions", lastExecutions);
         
         return statistics;
@@ -145,6 +220,18 @@ public class ETLJobHistoryServiceImpl implements ETLJobHistoryService {
             jobInfo.put("durationSeconds", durationSeconds);
         }
         
+        if (job.getApiCalls() != null) {
+            Map<String, Object> stageTimings = new HashMap<>();
+            stageTimings.put("apiFetchMillis", job.getApiFetchMillis());
+            stageTimings.put("mappingMillis", job.getMappingMillis());
+            stageTimings.put("dbWriteMillis", job.getDbWriteMillis());
+            stageTimings.put("commitMillis", job.getCommitMillis());
+            stageTimings.put("apiCalls", job.getApiCalls());
+            stageTimings.put("bytesReceived", job.getBytesReceived());
+            stageTimings.put("batchCount", job.getBatchCount());
+            jobInfo.put("stageTimings", stageTimings);
+        }
+        
         return jobInfo;
     }
 }
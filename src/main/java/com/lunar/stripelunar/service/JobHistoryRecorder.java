@@ -0,0 +1,288 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.SyncStageTimings;
+import com.lunar.stripelunar.repository.ETLJobHistoryBatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind recorder for the ETL job lifecycle. Job state is kept in memory and written to
+ * ETL_JOB_HISTORY by a background flush in JDBC batches, so a sync makes no history round trips
+ * beyond fetching a block of IDs now and then. A job that starts and finishes between two flushes
+ * is inserted once in its final state. Pending writes are flushed on shutdown.
+ *
+ * <p>Notifications are sent only after a batch commits. When a batch fails for a reason other
+ * than the database being unreachable, its rows are retried one at a time and a row that still
+ * fails is logged and dropped, so one bad row never holds back the rest of the history.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobHistoryRecorder {
+
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    private static final long SHUTDOWN_RETRY_DELAY_MS = 1000;
+
+    private final ETLJobHistoryService etlJobHistoryService;
+    private final ETLJobHistoryBatchRepository etlJobHistoryBatchRepository;
+
+    // IDs fetched from SEQ_ETL_JOB_ID per round trip
+    @Value("${stripe.jobs.recorder.id-block-size:20}")
+    private int idBlockSize = 20;
+
+    // Most rows written per transaction
+    @Value("${stripe.jobs.recorder.batch-size:100}")
+    private int batchSize = 100;
+
+    /**
+     * Latest state of a job waiting to be written; insert is false once its row exists
+     */
+    private record PendingWrite(ETLJobHistory job, boolean insert) {
+    }
+
+    private final Deque<Long> freeIds = new ArrayDeque<>();
+    private final Map<Long, PendingWrite> pending = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Start a job in memory; its row is inserted by a later flush
+     *
+     * @param jobName Name of the ETL job
+     * @return The job, with its ID allocated
+     */
+    public ETLJobHistory startJob(String jobName) {
+        ETLJobHistory job = ETLJobHistory.builder()
+                .id(nextId())
+                .jobName(jobName)
+                .startTime(LocalDateTime.now())
+                .status(ETLJobHistory.STATUS_RUNNING)
+                .build();
+        enqueue(job, true);
+        return job;
+    }
+
+    public void completeJob(ETLJobHistory job, int recordsProcessed, SyncStageTimings timings) {
+        log.info("Completing ETL job with ID: {}, records processed: {}", job.getId(), recordsProcessed);
+        job.setEndTime(LocalDateTime.now());
+        job.setStatus(ETLJobHistory.STATUS_COMPLETED);
+        job.setRecordsProcessed(recordsProcessed);
+        if (timings != null) {
+            job.applyStageTimings(timings);
+        }
+        enqueue(job, false);
+    }
+
+    public void failJob(ETLJobHistory job, String errorMessage, SyncStageTimings timings) {
+        log.error("ETL job with ID: {} failed with error: {}", job.getId(), errorMessage);
+        job.setEndTime(LocalDateTime.now());
+        job.setStatus(ETLJobHistory.STATUS_FAILED);
+        job.setErrorMessage(truncateErrorMessage(errorMessage));
+        if (timings != null) {
+            job.applyStageTimings(timings);
+        }
+        enqueue(job, false);
+    }
+
+    /**
+     * Write every pending job in batches. If the database is unreachable the batch is queued again
+     * for the next flush; any other failure is narrowed down to the rows that caused it.
+     */
+    @Scheduled(fixedDelayString = "${stripe.jobs.recorder.flush-interval-ms:1000}")
+    public void flush() {
+        flushPending();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (int attempt = 1; attempt <= SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            if (flushPending()) {
+                return;
+            }
+            if (attempt < SHUTDOWN_FLUSH_ATTEMPTS) {
+                Thread.sleep(SHUTDOWN_RETRY_DELAY_MS);
+            }
+        }
+        log.error("Shutting down with {} job history rows unwritten", pendingCount());
+    }
+
+    public int pendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return Rows dropped since startup because they failed even when written on their own
+     */
+    public long droppedCount() {
+        return droppedCount.get();
+    }
+
+    // true when nothing is left pending
+    private boolean flushPending() {
+        synchronized (flushLock) {
+            List<PendingWrite> batch;
+            while (!(batch = drain()).isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    if (isUnavailable(e)) {
+                        log.error("Failed to write {} job history rows; retrying on the next flush", batch.size(), e);
+                        requeue(batch);
+                        return false;
+                    }
+                    log.warn("Failed to write {} job history rows as a batch; writing them one at a time", batch.size(), e);
+                    if (!writeOneByOne(batch)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    // false when the database became unreachable; the unwritten rows are queued again
+    private boolean writeOneByOne(List<PendingWrite> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            try {
+                write(List.of(write));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    log.error("Failed to write {} job history rows; retrying on the next flush", batch.size() - i, e);
+                    requeue(batch.subList(i, batch.size()));
+                    return false;
+                }
+                droppedCount.incrementAndGet();
+                log.error("Dropping job history row that cannot be written: {}", write.job(), e);
+            }
+        }
+        return true;
+    }
+
+    private void write(List<PendingWrite> writes) {
+        List<ETLJobHistory> inserts = new ArrayList<>();
+        List<ETLJobHistory> updates = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            (write.insert() ? inserts : updates).add(write.job());
+        }
+        etlJobHistoryService.recordJobs(inserts, updates);
+
+        // Committed; a failed notification must not put the rows back in the queue
+        List<ETLJobHistory> written = new ArrayList<>(inserts);
+        written.addAll(updates);
+        try {
+            etlJobHistoryService.notifyFinished(written);
+        } catch (RuntimeException e) {
+            log.error("Failed to send notifications for {} job history rows", written.size(), e);
+        }
+    }
+
+    // Connection and transient failures are worth retrying as they are; anything else points at the rows
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    // Cuts on a code point boundary so the UTF-8 encoding fits the column
+    static String truncateErrorMessage(String errorMessage) {
+        if (errorMessage == null || errorMessage.length() * 3 <= ETLJobHistory.ERROR_MESSAGE_MAX_BYTES) {
+            return errorMessage;
+        }
+        int bytes = 0;
+        int end = 0;
+        while (end < errorMessage.length()) {
+            int codePoint = errorMessage.codePointAt(end);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > ETLJobHistory.ERROR_MESSAGE_MAX_BYTES) {
+                break;
+            }
+            bytes += size;
+            end += Character.charCount(codePoint);
+        }
+        return errorMessage.substring(0, end);
+    }
+
+    private Long nextId() {
+        synchronized (freeIds) {
+            if (freeIds.isEmpty()) {
+                freeIds.addAll(etlJobHistoryBatchRepository.nextJobIds(idBlockSize));
+            }
+            return freeIds.poll();
+        }
+    }
+
+    // The queued copy never changes after enqueueing, so the flush thread can read it without locks
+    private void enqueue(ETLJobHistory job, boolean insert) {
+        ETLJobHistory copy = copyOf(job);
+        synchronized (pending) {
+            PendingWrite queued = pending.get(job.getId());
+            pending.put(job.getId(), new PendingWrite(copy, insert || (queued != null && queued.insert())));
+        }
+    }
+
+    private List<PendingWrite> drain() {
+        synchronized (pending) {
+            List<PendingWrite> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<PendingWrite> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    // A newer state queued while the batch was in flight wins, but still needs the insert
+    private void requeue(List<PendingWrite> batch) {
+        synchronized (pending) {
+            for (PendingWrite write : batch) {
+                PendingWrite newer = pending.get(write.job().getId());
+                pending.put(write.job().getId(), newer == null
+                        ? write
+                        : new PendingWrite(newer.job(), newer.insert() || write.insert()));
+            }
+        }
+    }
+
+    private static ETLJobHistory copyOf(ETLJobHistory job) {
+        return ETLJobHistory.builder()
+                .id(job.getId())
+                .jobName(job.getJobName())
+                .startTime(job.getStartTime())
+                .endTime(job.getEndTime())
+                .status(job.getStatus())
+                .recordsProcessed(job.getRecordsProcessed())
+                .errorMessage(job.getErrorMessage())
+                .apiFetchMillis(job.getApiFetchMillis())
+                .mappingMillis(job.getMappingMillis())
+                .dbWriteMillis(job.getDbWriteMillis())
+                .commitMillis(job.getCommitMillis())
+                .apiCalls(job.getApiCalls())
+                .bytesReceived(job.getBytesReceived())
+                .batchCount(job.getBatchCount())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.RunningJobProgress;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory registry of ETL jobs in flight, so operators can tell a slow job from a
+ * hung one before its ETL_JOB_HISTORY row leaves RUNNING.
+ */
+@Component
+public class RunningJobTracker {
+
+    private record RunningJob(Long jobId, String jobName, LocalDateTime startTime, SyncJobContext context) {
+    }
+
+    private final Map<Long, RunningJob> runningJobs = new ConcurrentHashMap<>();
+
+    public void jobStarted(Long jobId, String jobName, LocalDateTime startTime, SyncJobContext context) {
+        runningJobs.put(jobId, new RunningJob(jobId, jobName, startTime, context));
+    }
+
+    public void jobFinished(Long jobId) {
+        runningJobs.remove(jobId);
+    }
+
+    /**
+     * Progress of every running job, oldest first
+     */
+    public List<RunningJobProgress> getRunningJobs() {
+        long now = System.nanoTime();
+        return runningJobs.values().stream()
+                .map(job -> progress(job, now))
+                .sorted(Comparator.comparing(RunningJobProgress::jobId))
+                .toList();
+    }
+
+    private RunningJobProgress progress(RunningJob job, long now) {
+        SyncJobContext context = job.context();
+        long remainingNanos = context.remainingNanos(now);
+        return new RunningJobProgress(
+                job.jobId(),
+                job.jobName(),
+                job.startTime(),
+                TimeUnit.NANOSECONDS.toSeconds(context.elapsedNanos(now)),
+                context.stage().name(),
+                context.resource(),
+                context.pagesFetched(),
+                context.recordsWritten(),
+                context.hasMore(),
+                Math.round(context.recordsPerSecond(now) * 100) / 100.0,
+                remainingNanos < 0 ? null : TimeUnit.NANOSECONDS.toSeconds(remainingNanos));
+    }
+}
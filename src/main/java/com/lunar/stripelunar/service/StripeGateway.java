@@ -0,0 +1,18 @@
+package com.lunar.stripelunar.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.ChargeCollection;
+import com.stripe.model.CustomerCollection;
+import com.stripe.param.ChargeListParams;
+import com.stripe.param.CustomerListParams;
+
+/**
+ * Single entry point for Stripe API calls, so latency, payload sizes, throttling and
+ * retries are measured in one place and tests can substitute a local stand-in.
+ */
+public interface StripeGateway {
+
+    CustomerCollection listCustomers(CustomerListParams params) throws StripeException;
+
+    ChargeCollection listCharges(ChargeListParams params) throws StripeException;
+}
@@ -0,0 +1,175 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.jfr.StripePageFetchEvent;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Charge;
+import com.stripe.model.ChargeCollection;
+import com.stripe.model.Customer;
+import com.stripe.model.CustomerCollection;
+import com.stripe.model.StripeCollection;
+import com.stripe.net.ApiRequestParams;
+import com.stripe.net.FormEncoder;
+import com.stripe.net.StripeResponse;
+import com.stripe.param.ChargeListParams;
+import com.stripe.param.CustomerListParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StripeGateway backed by the Stripe Java SDK. Each attempt is timed per endpoint, and
+ * throttled (429) or connection-failed attempts are retried with exponential backoff.
+ * The whole call, retries included, is charged to the running ETL job.
+ */
+@Component
+@Slf4j
+public class StripeGatewayImpl implements StripeGateway {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public StripeGatewayImpl(MeterRegistry meterRegistry,
+                             @Value("${stripe.gateway.max-retries:2}") int maxRetries,
+                             @Value("${stripe.gateway.retry-backoff:500ms}") Duration retryBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        Gauge.builder("stripe.api.inflight", inFlight, AtomicInteger::get)
+                .description("Stripe API requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CustomerCollection listCustomers(CustomerListParams params) throws StripeException {
+        return call("customers", "list", params, () -> Customer.list(params));
+    }
+
+    @Override
+    public ChargeCollection listCharges(ChargeListParams params) throws StripeException {
+        return call("charges", "list", params, () -> Charge.list(params));
+    }
+
+    @FunctionalInterface
+    interface StripeCall<T> {
+        T execute() throws StripeException;
+    }
+
+    <T extends StripeCollection<?>> T call(String resource, String operation, ApiRequestParams params,
+                                           StripeCall<T> call) throws StripeException {
+        StripePageFetchEvent event = new StripePageFetchEvent();
+        event.begin();
+        SyncJobContext job = SyncJobContext.current();
+        job.enterStage(SyncJobContext.Stage.API_FETCH);
+        long start = System.nanoTime();
+        long bytes = 0;
+        String status = "error";
+        T result = null;
+        meterRegistry.summary("stripe.api.request.bytes", "resource", resource, "operation", operation)
+                .record(requestBytes(params));
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    result = attempt(resource, operation, call);
+                    break;
+                } catch (RateLimitException | ApiConnectionException e) {
+                    if (attempt >= maxRetries) {
+                        throw e;
+                    }
+                    String reason = e instanceof RateLimitException ? "throttled" : "connection";
+                    Counter.builder("stripe.api.retries")
+                            .tag("resource", resource)
+                            .tag("reason", reason)
+                            .register(meterRegistry)
+                            .increment();
+                    log.warn("Stripe {} {} attempt {} failed ({}), retrying", resource, operation, attempt + 1, reason);
+                    backOff(attempt);
+                }
+            }
+            status = "success";
+            if (result.getLastResponse() != null) {
+                job.recordStripeRequestId(result.getLastResponse().requestId());
+            }
+            bytes = responseBytes(result.getLastResponse());
+            meterRegistry.summary("stripe.api.response.bytes", "resource", resource, "operation", operation)
+                    .record(bytes);
+            job.recordPage(Boolean.TRUE.equals(result.getHasMore()));
+            return result;
+        } catch (StripeException e) {
+            status = e.getClass().getSimpleName();
+            job.recordStripeRequestId(e.getRequestId());
+            throw e;
+        } finally {
+            job.recordApiCall(System.nanoTime() - start, bytes);
+            event.end();
+            if (event.shouldCommit()) {
+                event.resource = resource;
+                event.pageSize = result != null && result.getData() != null ? result.getData().size() : 0;
+                event.hasMore = result != null && Boolean.TRUE.equals(result.getHasMore());
+                event.status = status;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * One HTTP round trip, timed and tagged by outcome. Throttled attempts are also counted on their own.
+     */
+    private <T> T attempt(String resource, String operation, StripeCall<T> call) throws StripeException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        inFlight.incrementAndGet();
+        String outcome = "error";
+        try {
+            T result = call.execute();
+            outcome = "success";
+            return result;
+        } catch (RateLimitException e) {
+            outcome = "throttled";
+            meterRegistry.counter("stripe.api.throttled", "resource", resource).increment();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            sample.stop(Timer.builder("stripe.api.requests")
+                    .tag("resource", resource)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void backOff(int attempt) throws ApiConnectionException {
+        long delayMillis = retryBackoff.toMillis() << attempt;
+        if (delayMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Interrupted while backing off a Stripe retry", e);
+        }
+    }
+
+    private long requestBytes(ApiRequestParams params) {
+        return FormEncoder.createQueryString(params.toMap()).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private long responseBytes(StripeResponse response) {
+        if (response == null || response.body() == null) {
+            return 0;
+        }
+        return response.body().getBytes(StandardCharsets.UTF_8).length;
+    }
+}
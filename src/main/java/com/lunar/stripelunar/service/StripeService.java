@@ -1,7 +1,13 @@
 package com.lunar.stripelunar.service;
 
+import com.lunar.stripelunar.model.BulkFetchResult;
 import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerPaymentsPage;
+import com.lunar.stripelunar.model.CustomerSummary;
 import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
+import com.lunar.stripelunar.model.PaymentSearchPage;
+import com.lunar.stripelunar.model.PaymentSummary;
 
 import java.util.List;
 
@@ -11,10 +17,21 @@ public interface StripeService {
     List<Customer> syncCustomers();
     Customer getCustomer(String customerId);
     List<Customer> getAllCustomers();
+    BulkFetchResult<Customer> getCustomers(List<String> customerIds);
+    List<CustomerSummary> getCustomerSummaries();
+    long countCustomers();
+    List<Customer> getCustomersByEmail(String email);
+    List<CustomerSummary> searchCustomers(String query, int limit);
+    CustomerPaymentsPage getCustomersWithPayments(int page, int size, int recentPayments);
     
     // Payment operations
     List<Payment> syncPayments();
     List<Payment> getPaymentsByCustomer(String customerId);
+    List<PaymentSummary> getPaymentSummariesByCustomer(String customerId);
     Payment getPayment(String paymentId);
+    BulkFetchResult<Payment> getPayments(List<String> paymentIds);
     List<Payment> getAllPayments();
+    List<PaymentSummary> getPaymentSummaries();
+    PaymentSearchPage searchPayments(PaymentSearchCriteria criteria);
+    long countPayments();
 }
@@ -1,20 +1,43 @@
 package com.lunar.stripelunar.service;
 
+import com.lunar.stripelunar.cache.CustomerSearchIndex;
+import com.lunar.stripelunar.cache.DataVersionTracker;
+import com.lunar.stripelunar.cache.StripeEntityCache;
 import com.lunar.stripelunar.exception.ResourceNotFoundException;
 import com.lunar.stripelunar.exception.StripeApiException;
+import com.lunar.stripelunar.jfr.DbBatchFlushEvent;
+import com.lunar.stripelunar.model.BulkFetchResult;
 import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerCurrencyTotal;
+import com.lunar.stripelunar.model.CustomerPaymentsPage;
+import com.lunar.stripelunar.model.CustomerSummary;
+import com.lunar.stripelunar.model.CustomerWithPayments;
 import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.model.PaymentOwner;
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
+import com.lunar.stripelunar.model.PaymentSearchCursor;
+import com.lunar.stripelunar.model.PaymentSearchPage;
+import com.lunar.stripelunar.model.PaymentSummary;
 import com.lunar.stripelunar.repository.CustomerRepository;
 import com.lunar.stripelunar.repository.PaymentRepository;
+import com.lunar.stripelunar.util.InClauseUtil;
 import com.stripe.exception.StripeException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import com.stripe.model.Charge;
 
 import com.stripe.param.ChargeListParams;
 import com.stripe.param.CustomerListParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 // No need for explicit Logger imports with @Slf4j
 
 import java.math.BigDecimal;
@@ -22,6 +45,10 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
@@ -32,25 +59,87 @@ public class StripeServiceImpl implements StripeService {
 
     private final CustomerRepository customerRepository;
     private final PaymentRepository paymentRepository;
+    private final StripeGateway stripeGateway;
+    private final StripeEntityCache entityCache;
+    private final DataVersionTracker dataVersionTracker;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final MeterRegistry meterRegistry;
+
+    // Table row counts from COUNT(*), reloaded every count-refresh-ms. Committed sync inserts are
+    // added in between; drift from concurrent syncs or other instances lasts until the next reload.
+    @Value("${stripe.count-refresh-ms:60000}")
+    private long countRefreshMillis = 60000;
+    private final AtomicReference<RowCount> customerCount = new AtomicReference<>();
+    private final AtomicReference<RowCount> paymentCount = new AtomicReference<>();
+
+    private record RowCount(long rows, long loadedAtNanos) {
+    }
+
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+    private static final int DEFAULT_CUSTOMER_SEARCH_LIMIT = 20;
+    private static final int MAX_CUSTOMER_SEARCH_LIMIT = 100;
+    private static final int DEFAULT_CUSTOMER_PAGE_SIZE = 50;
+    private static final int MAX_CUSTOMER_PAGE_SIZE = 200;
+    private static final int DEFAULT_RECENT_PAYMENTS = 5;
+    private static final int MAX_RECENT_PAYMENTS = 20;
+
+    @Value("${stripe.bulk.max-ids:1000}")
+    private int bulkMaxIds = 1000;
+
+    // Stripe list page size, and how many pages one sync follows has_more through
+    private static final long SYNC_PAGE_SIZE = 100L;
+    @Value("${stripe.sync.max-pages:1}")
+    private int syncMaxPages = 1;
 
     @Override
     @Transactional
     public List<Customer> syncCustomers() {
         log.info("Starting customer sync from Stripe");
         List<Customer> syncedCustomers = new ArrayList<>();
+        SyncJobContext job = SyncJobContext.current();
+        job.beginResource("customers", syncMaxPages);
         
         try {
-            CustomerListParams params = CustomerListParams.builder()
-                    .setLimit(100L)
-                    .build();
-            
-            com.stripe.model.CustomerCollection customerCollection = com.stripe.model.Customer.list(params);
-            
-            for (com.stripe.model.Customer stripeCustomer : customerCollection.getData()) {
-                Customer customer = mapStripeCustomerToEntity(stripeCustomer);
-                customerRepository.save(customer);
-                syncedCustomers.add(customer);
+            int inserted = 0;
+            String startingAfter = null;
+            boolean hasMore = true;
+            for (int page = 0; page < syncMaxPages && hasMore; page++) {
+                CustomerListParams.Builder params = CustomerListParams.builder()
+                        .setLimit(SYNC_PAGE_SIZE);
+                if (startingAfter != null) {
+                    params.setStartingAfter(startingAfter);
+                }
+                CustomerListParams listParams = params.build();
+                
+                com.stripe.model.CustomerCollection customerCollection =
+                        stripeGateway.listCustomers(listParams);
+                
+                job.enterStage(SyncJobContext.Stage.MAPPING);
+                long mappingStart = System.nanoTime();
+                List<Customer> pageCustomers = new ArrayList<>();
+                for (com.stripe.model.Customer stripeCustomer : customerCollection.getData()) {
+                    pageCustomers.add(mapStripeCustomerToEntity(stripeCustomer));
+                }
+                job.recordMapping(System.nanoTime() - mappingStart);
+                
+                if (pageCustomers.isEmpty()) {
+                    break;
+                }
+                inserted += countNewRows(pageCustomers.stream().map(Customer::getId).toList(),
+                        customerRepository::findExistingIds);
+                saveBatch("customers", customerRepository, pageCustomers);
+                syncedCustomers.addAll(pageCustomers);
+                startingAfter = pageCustomers.get(pageCustomers.size() - 1).getId();
+                hasMore = Boolean.TRUE.equals(customerCollection.getHasMore());
             }
+            timeCommit(job);
+            adjustCountAfterCommit(customerCount, inserted);
+            afterCommit(() -> {
+                entityCache.customersWritten(syncedCustomers);
+                dataVersionTracker.customersWritten(syncedCustomers);
+                customerSearchIndex.customersWritten(syncedCustomers);
+            });
             
             log.info("Successfully synced {} customers from Stripe", syncedCustomers.size());
         } catch (StripeException e) {
@@ -63,8 +152,13 @@ public class StripeServiceImpl implements StripeService {
 
     @Override
     public Customer getCustomer(String customerId) {
-        return customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+        long version = dataVersionTracker.customersVersion();
+        Customer customer = entityCache.getCustomer(customerId, id -> customerRepository.findById(id).orElse(null));
+        if (customer == null) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
+        dataVersionTracker.customerFound(customerId, version);
+        return customer;
     }
 
     @Override
@@ -72,19 +166,51 @@ public class StripeServiceImpl implements StripeService {
     public List<Payment> syncPayments() {
         log.info("Starting payment sync from Stripe");
         List<Payment> syncedPayments = new ArrayList<>();
+        // Customer each existing payment was stored under before this sync, to invalidate moved payments
+        Map<String, String> previousOwners = new HashMap<>();
+        SyncJobContext job = SyncJobContext.current();
+        job.beginResource("charges", syncMaxPages);
         
         try {
-            ChargeListParams params = ChargeListParams.builder()
-                    .setLimit(100L)
-                    .build();
-            
-            com.stripe.model.ChargeCollection chargeCollection = Charge.list(params);
-            
-            for (Charge stripeCharge : chargeCollection.getData()) {
-                Payment payment = mapStripeChargeToEntity(stripeCharge);
-                paymentRepository.save(payment);
-                syncedPayments.add(payment);
+            int inserted = 0;
+            String startingAfter = null;
+            boolean hasMore = true;
+            for (int page = 0; page < syncMaxPages && hasMore; page++) {
+                ChargeListParams.Builder params = ChargeListParams.builder()
+                        .setLimit(SYNC_PAGE_SIZE);
+                if (startingAfter != null) {
+                    params.setStartingAfter(startingAfter);
+                }
+                ChargeListParams listParams = params.build();
+                
+                com.stripe.model.ChargeCollection chargeCollection = stripeGateway.listCharges(listParams);
+                
+                job.enterStage(SyncJobContext.Stage.MAPPING);
+                long mappingStart = System.nanoTime();
+                List<Payment> pagePayments = new ArrayList<>();
+                for (Charge stripeCharge : chargeCollection.getData()) {
+                    pagePayments.add(mapStripeChargeToEntity(stripeCharge));
+                }
+                job.recordMapping(System.nanoTime() - mappingStart);
+                
+                if (pagePayments.isEmpty()) {
+                    break;
+                }
+                List<String> pageIds = pagePayments.stream().map(Payment::getId).toList();
+                List<PaymentOwner> existing = InClauseUtil.queryInChunks(pageIds, paymentRepository::findOwnersByIds);
+                inserted += pageIds.size() - existing.size();
+                existing.forEach(owner -> previousOwners.put(owner.paymentId(), owner.customerId()));
+                saveBatch("payments", paymentRepository, pagePayments);
+                syncedPayments.addAll(pagePayments);
+                startingAfter = pagePayments.get(pagePayments.size() - 1).getId();
+                hasMore = Boolean.TRUE.equals(chargeCollection.getHasMore());
             }
+            timeCommit(job);
+            adjustCountAfterCommit(paymentCount, inserted);
+            afterCommit(() -> {
+                entityCache.paymentsWritten(syncedPayments, previousOwners);
+                dataVersionTracker.paymentsWritten(syncedPayments, previousOwners);
+            });
             
             log.info("Successfully synced {} payments from Stripe", syncedPayments.size());
         } catch (StripeException e) {
@@ -97,13 +223,89 @@ public class StripeServiceImpl implements StripeService {
 
     @Override
     public List<Payment> getPaymentsByCustomer(String customerId) {
-        return paymentRepository.findByCustomerId(customerId);
+        return entityCache.getPaymentsByCustomer(customerId, paymentRepository::findByCustomerId);
+    }
+
+    @Override
+    public List<PaymentSummary> getPaymentSummariesByCustomer(String customerId) {
+        return paymentRepository.findSummariesByCustomerId(customerId);
     }
 
     @Override
     public Payment getPayment(String paymentId) {
-        return paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+        long version = dataVersionTracker.paymentsVersion();
+        Payment payment = entityCache.getPayment(paymentId, id -> paymentRepository.findById(id).orElse(null));
+        if (payment == null) {
+            throw new ResourceNotFoundException("Payment", "id", paymentId);
+        }
+        dataVersionTracker.paymentFound(paymentId, version);
+        return payment;
+    }
+    
+    @Override
+    public BulkFetchResult<Customer> getCustomers(List<String> customerIds) {
+        validateBulkIds(customerIds);
+        Map<String, Customer> customers = entityCache.getCustomers(customerIds, missing -> mapById(
+                InClauseUtil.queryInChunks(new ArrayList<String>(missing), customerRepository::findAllById), Customer::getId));
+        return bulkResult(customerIds, customers);
+    }
+    
+    @Override
+    public List<Customer> getCustomersByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+        return customerRepository.findByNormalizedEmail(email.trim().toLowerCase(Locale.ROOT));
+    }
+    
+    @Override
+    public List<CustomerSummary> searchCustomers(String query, int limit) {
+        int boundedLimit = limit <= 0 ? DEFAULT_CUSTOMER_SEARCH_LIMIT : Math.min(limit, MAX_CUSTOMER_SEARCH_LIMIT);
+        return customerSearchIndex.search(query, boundedLimit);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerPaymentsPage getCustomersWithPayments(int page, int size, int recentPayments) {
+        int pageSize = size <= 0 ? DEFAULT_CUSTOMER_PAGE_SIZE : Math.min(size, MAX_CUSTOMER_PAGE_SIZE);
+        int recentLimit = recentPayments <= 0 ? DEFAULT_RECENT_PAYMENTS : Math.min(recentPayments, MAX_RECENT_PAYMENTS);
+        
+        // The database groups the totals and cuts each customer's payments to the recent few, so
+        // only a page of customers, their per-currency totals and recentLimit payments each come back
+        Slice<CustomerSummary> customers = customerRepository.findSummaryPage(PageRequest.of(Math.max(page, 0), pageSize));
+        List<String> customerIds = customers.getContent().stream().map(CustomerSummary::id).toList();
+        Map<String, List<CustomerCurrencyTotal>> totalsByCustomer = new HashMap<>();
+        for (CustomerCurrencyTotal total : InClauseUtil.queryInChunks(customerIds, paymentRepository::findTotalsByCustomerIds)) {
+            totalsByCustomer.computeIfAbsent(total.customerId(), id -> new ArrayList<>()).add(total);
+        }
+        Map<String, List<PaymentSummary>> recentByCustomer = new HashMap<>();
+        for (PaymentSummary payment : InClauseUtil.queryInChunks(customerIds,
+                ids -> paymentRepository.findRecentSummariesByCustomerIds(ids, recentLimit))) {
+            recentByCustomer.computeIfAbsent(payment.customerId(), id -> new ArrayList<>()).add(payment);
+        }
+        
+        List<CustomerWithPayments> results = new ArrayList<>(customerIds.size());
+        for (CustomerSummary customer : customers.getContent()) {
+            long paymentCount = 0;
+            Map<String, BigDecimal> totalsByCurrency = new TreeMap<>();
+            for (CustomerCurrencyTotal total : totalsByCustomer.getOrDefault(customer.id(), Collections.emptyList())) {
+                paymentCount += total.paymentCount();
+                if (total.currency() != null && total.total() != null) {
+                    totalsByCurrency.put(total.currency(), total.total());
+                }
+            }
+            List<PaymentSummary> recent = recentByCustomer.getOrDefault(customer.id(), Collections.emptyList());
+            results.add(new CustomerWithPayments(customer, recent, paymentCount, totalsByCurrency));
+        }
+        return new CustomerPaymentsPage(results, customers.getNumber(), pageSize, customers.hasNext());
+    }
+    
+    @Override
+    public BulkFetchResult<Payment> getPayments(List<String> paymentIds) {
+        validateBulkIds(paymentIds);
+        Map<String, Payment> payments = entityCache.getPayments(paymentIds, missing -> mapById(
+                InClauseUtil.queryInChunks(new ArrayList<String>(missing), paymentRepository::findAllById), Payment::getId));
+        return bulkResult(paymentIds, payments);
     }
     
     @Override
@@ -112,12 +314,178 @@ public class StripeServiceImpl implements StripeService {
         return customerRepository.findAll();
     }
     
+    @Override
+    public List<CustomerSummary> getCustomerSummaries() {
+        log.info("Retrieving customer summaries from database");
+        return customerRepository.findAllSummaries();
+    }
+    
     @Override
     public List<Payment> getAllPayments() {
         log.info("Retrieving all payments from database");
         return paymentRepository.findAll();
     }
     
+    @Override
+    public List<PaymentSummary> getPaymentSummaries() {
+        log.info("Retrieving payment summaries from database");
+        return paymentRepository.findAllSummaries();
+    }
+    
+    @Override
+    public PaymentSearchPage searchPayments(PaymentSearchCriteria criteria) {
+        int limit = criteria.limit() <= 0 ? DEFAULT_SEARCH_LIMIT : Math.min(criteria.limit(), MAX_SEARCH_LIMIT);
+        
+        // Fetch one extra row to learn whether another page follows
+        List<PaymentSummary> rows = paymentRepository.search(criteria, limit + 1);
+        if (rows.size() <= limit) {
+            return new PaymentSearchPage(rows, null, limit);
+        }
+        
+        List<PaymentSummary> page = rows.subList(0, limit);
+        PaymentSummary last = page.get(limit - 1);
+        String nextCursor = new PaymentSearchCursor(last.createdDate(), last.id()).encode();
+        return new PaymentSearchPage(new ArrayList<>(page), nextCursor, limit);
+    }
+    
+    @Override
+    public long countCustomers() {
+        return currentCount(customerCount, customerRepository::count);
+    }
+    
+    @Override
+    public long countPayments() {
+        return currentCount(paymentCount, paymentRepository::count);
+    }
+    
+    private long currentCount(AtomicReference<RowCount> counter, LongSupplier databaseCount) {
+        RowCount count = counter.get();
+        if (count != null && System.nanoTime() - count.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(countRefreshMillis)) {
+            return count.rows();
+        }
+        RowCount loaded = new RowCount(databaseCount.getAsLong(), System.nanoTime());
+        counter.set(loaded);
+        return loaded.rows();
+    }
+    
+    /**
+     * Save and flush a synced batch, recording how long the write took and how many rows
+     * it carried. Flushing here keeps the INSERT/UPDATE time out of the commit stage.
+     */
+    private <T> void saveBatch(String resource, JpaRepository<T, String> repository, List<T> rows) {
+        SyncJobContext job = SyncJobContext.current();
+        job.enterStage(SyncJobContext.Stage.DB_WRITE);
+        DbBatchFlushEvent event = new DbBatchFlushEvent();
+        event.begin();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long start = System.nanoTime();
+        repository.saveAll(rows);
+        repository.flush();
+        job.recordBatchWrite(System.nanoTime() - start, rows.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.resource = resource;
+            event.rows = rows.size();
+            event.commit();
+        }
+        sample.stop(meterRegistry.timer("stripe.db.batch.writes", "resource", resource));
+        meterRegistry.summary("stripe.db.batch.rows", "resource", resource).record(rows.size());
+    }
+    
+    /**
+     * Charge the time between the start of the commit and its completion to the job
+     */
+    private void timeCommit(SyncJobContext job) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                job.enterStage(SyncJobContext.Stage.COMMIT);
+                commitStart = System.nanoTime();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (commitStart != 0) {
+                    job.recordCommit(System.nanoTime() - commitStart);
+                }
+            }
+        });
+    }
+    
+    private void validateBulkIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > bulkMaxIds) {
+            throw new IllegalArgumentException("At most " + bulkMaxIds + " ids can be fetched at once, got " + ids.size());
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+    }
+    
+    private <T> Map<String, T> mapById(List<T> entities, Function<T, String> idGetter) {
+        Map<String, T> byId = new HashMap<>();
+        for (T entity : entities) {
+            byId.put(idGetter.apply(entity), entity);
+        }
+        return byId;
+    }
+    
+    private <T> BulkFetchResult<T> bulkResult(List<String> requestedIds, Map<String, T> loaded) {
+        List<BulkFetchResult.Item<T>> results = new ArrayList<>(requestedIds.size());
+        int found = 0;
+        for (String id : requestedIds) {
+            T entity = loaded.get(id);
+            if (entity != null) {
+                found++;
+            }
+            results.add(new BulkFetchResult.Item<>(id, entity != null, entity));
+        }
+        return new BulkFetchResult<>(results, found, requestedIds.size() - found);
+    }
+    
+    private int countNewRows(List<String> ids, Function<List<String>, List<String>> existingIdsLookup) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return ids.size() - InClauseUtil.queryInChunks(ids, existingIdsLookup).size();
+    }
+    
+    /**
+     * Apply inserted rows to a counter once the surrounding transaction commits,
+     * so a rolled back sync never inflates the count. A counter that has not been
+     * loaded yet picks the rows up from COUNT(*) on its first read.
+     */
+    private void adjustCountAfterCommit(AtomicReference<RowCount> counter, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> counter.updateAndGet(count ->
+                count == null ? null : new RowCount(count.rows() + delta, count.loadedAtNanos())));
+    }
+    
+    /**
+     * Run in-memory bookkeeping only once the written rows are visible to other readers.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
     // Helper methods to map Stripe objects to our entities
     private Customer mapStripeCustomerToEntity(com.stripe.model.Customer stripeCustomer) {
         Customer customer = new Customer();
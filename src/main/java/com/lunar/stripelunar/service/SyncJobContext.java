@@ -0,0 +1,216 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.SyncStageTimings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stage accounting and live progress for the ETL job running on the current thread.
+ * StripeETLProcessor opens one around each operation; syncs started outside a job, such
+ * as webhook triggered ones, record into a detached context that nobody reads.
+ * Progress fields are written by the job thread and read by RunningJobTracker.
+ */
+public final class SyncJobContext implements AutoCloseable {
+
+    /** What the job is doing right now */
+    public enum Stage { STARTING, API_FETCH, MAPPING, DB_WRITE, COMMIT }
+
+    /** Exchange property carrying the job's context to Camel event listeners */
+    public static final String EXCHANGE_PROPERTY = "syncJobContext";
+
+    private static final ThreadLocal<SyncJobContext> CURRENT = new ThreadLocal<>();
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_STRIPE_REQUEST_IDS = 100;
+
+    private final AtomicLong apiFetchNanos = new AtomicLong();
+    private final AtomicLong mappingNanos = new AtomicLong();
+    private final AtomicLong dbWriteNanos = new AtomicLong();
+    private final AtomicLong commitNanos = new AtomicLong();
+    private final AtomicLong apiCalls = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong pagesFetched = new AtomicLong();
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private volatile Stage stage = Stage.STARTING;
+    private volatile String resource;
+    private volatile int pageBudget;
+    private volatile int resourcePages;
+    private volatile long resourceStartNanos;
+    private volatile boolean hasMore;
+    // (nanoTime, recordsWritten) samples for the sliding-window rate, guarded by itself
+    private final Deque<long[]> writeSamples = new ArrayDeque<>();
+    // Most recent Stripe request IDs, for correlating a slow job with Stripe's request logs
+    private final Deque<String> stripeRequestIds = new ArrayDeque<>();
+
+    private SyncJobContext() {
+        writeSamples.add(new long[] {startNanos, 0});
+    }
+
+    /**
+     * Bind a fresh context to the current thread. Close it when the job ends.
+     */
+    public static SyncJobContext open() {
+        SyncJobContext context = new SyncJobContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    /**
+     * The context of the job running on this thread, or a detached one outside a job
+     */
+    public static SyncJobContext current() {
+        SyncJobContext context = CURRENT.get();
+        return context != null ? context : new SyncJobContext();
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    public void recordApiCall(long nanos, long bytes) {
+        apiFetchNanos.addAndGet(nanos);
+        apiCalls.incrementAndGet();
+        bytesReceived.addAndGet(bytes);
+    }
+
+    public void recordStripeRequestId(String requestId) {
+        if (requestId == null) {
+            return;
+        }
+        synchronized (stripeRequestIds) {
+            if (stripeRequestIds.size() == MAX_STRIPE_REQUEST_IDS) {
+                stripeRequestIds.removeFirst();
+            }
+            stripeRequestIds.addLast(requestId);
+        }
+    }
+
+    public List<String> stripeRequestIds() {
+        synchronized (stripeRequestIds) {
+            return new ArrayList<>(stripeRequestIds);
+        }
+    }
+
+    public void recordMapping(long nanos) {
+        mappingNanos.addAndGet(nanos);
+    }
+
+    public void recordBatchWrite(long nanos, int rows) {
+        dbWriteNanos.addAndGet(nanos);
+        batchCount.incrementAndGet();
+        long written = recordsWritten.addAndGet(rows);
+        synchronized (writeSamples) {
+            writeSamples.add(new long[] {System.nanoTime(), written});
+        }
+    }
+
+    public void recordCommit(long nanos) {
+        commitNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Start paging through a Stripe resource, fetching at most {@code pageBudget} pages
+     */
+    public void beginResource(String resource, int pageBudget) {
+        this.resource = resource;
+        this.pageBudget = pageBudget;
+        this.resourcePages = 0;
+        this.resourceStartNanos = System.nanoTime();
+        this.hasMore = false;
+    }
+
+    public void recordPage(boolean hasMore) {
+        pagesFetched.incrementAndGet();
+        resourcePages++;
+        this.hasMore = hasMore;
+    }
+
+    public void enterStage(Stage stage) {
+        this.stage = stage;
+    }
+
+    public Stage stage() {
+        return stage;
+    }
+
+    public String resource() {
+        return resource;
+    }
+
+    public long pagesFetched() {
+        return pagesFetched.get();
+    }
+
+    public long recordsWritten() {
+        return recordsWritten.get();
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public long elapsedNanos(long nowNanos) {
+        return nowNanos - startNanos;
+    }
+
+    /**
+     * Records written per second over the last minute. Measured up to {@code nowNanos}
+     * rather than the last write, so a job that stops writing decays towards zero.
+     */
+    public double recordsPerSecond(long nowNanos) {
+        long[] oldest;
+        synchronized (writeSamples) {
+            while (writeSamples.size() > 1) {
+                long[] first = writeSamples.removeFirst();
+                if (writeSamples.peekFirst()[0] > nowNanos - RATE_WINDOW_NANOS) {
+                    writeSamples.addFirst(first);
+                    break;
+                }
+            }
+            oldest = writeSamples.peekFirst();
+        }
+        long elapsed = nowNanos - oldest[0];
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+        return (recordsWritten.get() - oldest[1]) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * Estimated nanos left on the current resource, or -1 when unknown. Stripe lists carry
+     * no total, only has_more, so while more pages exist the estimate is the remaining page
+     * budget at the average page time so far; once has_more is false only the last page is left.
+     */
+    public long remainingNanos(long nowNanos) {
+        int pages = resourcePages;
+        if (pages == 0) {
+            return -1;
+        }
+        if (!hasMore) {
+            return 0;
+        }
+        int remainingPages = Math.max(0, pageBudget - pages);
+        return remainingPages * ((nowNanos - resourceStartNanos) / pages);
+    }
+
+    public SyncStageTimings snapshot() {
+        return new SyncStageTimings(
+                TimeUnit.NANOSECONDS.toMillis(apiFetchNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(mappingNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(dbWriteNanos.get()),
+                TimeUnit.NANOSECONDS.toMillis(commitNanos.get()),
+                (int) apiCalls.get(),
+                bytesReceived.get(),
+                (int) batchCount.get());
+    }
+}
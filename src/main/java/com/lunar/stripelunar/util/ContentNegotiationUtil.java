@@ -0,0 +1,46 @@
+package com.lunar.stripelunar.util;
+
+/**
+ * Parsing of Accept and Accept-Encoding request headers, shared by the Camel REST routes
+ * and the Spring MVC controllers.
+ */
+public final class ContentNegotiationUtil {
+
+    private ContentNegotiationUtil() {
+    }
+
+    /**
+     * Whether an Accept or Accept-Encoding header value lists the token without q=0
+     *
+     * @param headerValue Header value, or null if the header is absent
+     * @param token Media type or content coding to look for, matched case-insensitively
+     * @return true if the client accepts the token
+     */
+    public static boolean accepts(String headerValue, String token) {
+        if (headerValue == null) {
+            return false;
+        }
+        for (String part : headerValue.split(",")) {
+            String[] params = part.trim().split(";");
+            if (params[0].trim().equalsIgnoreCase(token) && !rejected(params)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A q=0 parameter means the client explicitly refuses the encoding
+    private static boolean rejected(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
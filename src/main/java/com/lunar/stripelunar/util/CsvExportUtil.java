@@ -8,7 +8,9 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.io.Writer;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Component
 public class CsvExportUtil {
@@ -23,13 +25,28 @@ public class CsvExportUtil {
      * @throws IOException If an I/O error occurs
      */
     public void exportJobHistoryToCsv(List<ETLJobHistory> jobs, Writer writer) throws IOException {
+        exportJobHistoryToCsv(jobs.stream(), writer);
+    }
+    
+    /**
+     * Export ETL job history data to CSV format one row at a time, without holding the rows
+     * 
+     * @param jobs Stream of ETL job history records to export
+     * @param writer Writer to output the CSV data
+     * @return Number of rows written
+     * @throws IOException If an I/O error occurs
+     */
+    public long exportJobHistoryToCsv(Stream<ETLJobHistory> jobs, Writer writer) throws IOException {
         String[] headers = {
             "Job ID", "Job Name", "Start Time", "End Time", "Status", 
             "Records Processed", "Duration (seconds)", "Error Message"
         };
         
+        long rows = 0;
         try (CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(headers).build())) {
-            for (ETLJobHistory job : jobs) {
+            Iterator<ETLJobHistory> iterator = jobs.iterator();
+            while (iterator.hasNext()) {
+                ETLJobHistory job = iterator.next();
                 Long durationSeconds = null;
                 if (job.getEndTime() != null && job.getStartTime() != null) {
                     durationSeconds = java.time.Duration.between(job.getStartTime(), job.getEndTime()).getSeconds();
@@ -45,9 +62,11 @@ public class CsvExportUtil {
                     durationSeconds,
                     job.getErrorMessage()
                 );
+                rows++;
             }
             
             csvPrinter.flush();
         }
+        return rows;
     }
 }
@@ -0,0 +1,38 @@
+package com.lunar.stripelunar.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs IN-list queries in chunks that stay within Oracle's limit of 1000 expressions
+ * per IN list (ORA-01795).
+ */
+public final class InClauseUtil {
+
+    public static final int ORACLE_IN_LIST_LIMIT = 1000;
+
+    private InClauseUtil() {
+    }
+
+    /**
+     * Run a query once per chunk of values and concatenate the results
+     *
+     * @param values Values to bind to the IN list
+     * @param query Query taking at most {@link #ORACLE_IN_LIST_LIMIT} values
+     * @return Results of every chunk in chunk order
+     */
+    public static <T, R> List<R> queryInChunks(Collection<T> values, Function<List<T>, List<R>> query) {
+        List<T> all = values instanceof List<T> list ? list : new ArrayList<>(values);
+        if (all.size() <= ORACLE_IN_LIST_LIMIT) {
+            return all.isEmpty() ? new ArrayList<>() : query.apply(all);
+        }
+
+        List<R> results = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += ORACLE_IN_LIST_LIMIT) {
+            results.addAll(query.apply(all.subList(from, Math.min(from + ORACLE_IN_LIST_LIMIT, all.size()))));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,78 @@
+package com.lunar.stripelunar.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free event counter over a sliding time window, kept as a ring of fixed-width
+ * buckets. Each bucket is a striped LongAdder tagged with the time slot it counts; a
+ * slot that has rolled over is replaced by CAS rather than reset, so no increment is
+ * ever lost to a concurrent rotation.
+ */
+public final class RollingWindowCounter {
+
+    private record Bucket(long slot, LongAdder count) {
+    }
+
+    private final long bucketMillis;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * @param span Longest window that can be queried
+     * @param bucketWidth Resolution; rates for shorter windows are approximate to one bucket
+     */
+    public RollingWindowCounter(Duration span, Duration bucketWidth) {
+        this.bucketMillis = bucketWidth.toMillis();
+        int bucketCount = (int) (span.toMillis() / bucketMillis);
+        if (bucketCount < 1 || span.toMillis() % bucketMillis != 0) {
+            throw new IllegalArgumentException("Span must be a positive multiple of the bucket width");
+        }
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public void add(long amount) {
+        add(amount, System.currentTimeMillis());
+    }
+
+    public void add(long amount, long nowMillis) {
+        long slot = nowMillis / bucketMillis;
+        int index = (int) (slot % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.slot() == slot) {
+                bucket.count().add(amount);
+                return;
+            }
+            if (bucket != null && bucket.slot() > slot) {
+                // Caller's clock reading is older than the whole ring; too late to count
+                return;
+            }
+            buckets.compareAndSet(index, bucket, new Bucket(slot, new LongAdder()));
+        }
+    }
+
+    /**
+     * Events counted in the last {@code window}, which is capped at the counter's span
+     */
+    public long sum(Duration window, long nowMillis) {
+        long currentSlot = nowMillis / bucketMillis;
+        long slots = Math.min(buckets.length(), Math.max(1, window.toMillis() / bucketMillis));
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.slot() <= currentSlot && bucket.slot() > currentSlot - slots) {
+                total += bucket.count().sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Average events per second over the last {@code window}
+     */
+    public double ratePerSecond(Duration window, long nowMillis) {
+        long slots = Math.min(buckets.length(), Math.max(1, window.toMillis() / bucketMillis));
+        return sum(window, nowMillis) * 1000.0 / (slots * bucketMillis);
+    }
+}
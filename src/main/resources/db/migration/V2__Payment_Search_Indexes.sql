@@ -0,0 +1,14 @@
+-- Composite indexes backing payment search (status, currency, customer and created-date range)
+
+-- Every index ends with CREATED_DATE, PAYMENT_ID so a filtered search walks the index
+-- in keyset order and stops after one page instead of scanning and sorting the table
+CREATE INDEX IDX_PAYMENT_STATUS_CREATED ON STRIPE_PAYMENTS(STATUS, CREATED_DATE, PAYMENT_ID);
+
+CREATE INDEX IDX_PAYMENT_CURRENCY_CREATED ON STRIPE_PAYMENTS(CURRENCY, CREATED_DATE, PAYMENT_ID);
+
+CREATE INDEX IDX_PAYMENT_CREATED ON STRIPE_PAYMENTS(CREATED_DATE, PAYMENT_ID);
+
+-- Replaces IDX_PAYMENT_CUSTOMER: still leads with CUSTOMER_ID for the foreign key and findByCustomerId
+CREATE INDEX IDX_PAYMENT_CUSTOMER_CREATED ON STRIPE_PAYMENTS(CUSTOMER_ID, CREATED_DATE, PAYMENT_ID);
+
+DROP INDEX IDX_PAYMENT_CUSTOMER;
@@ -0,0 +1,7 @@
+-- Case-insensitive customer email lookup
+
+-- Function-based index matching the LOWER(EMAIL) predicate of CustomerRepository.findByNormalizedEmail
+CREATE INDEX IDX_CUSTOMER_EMAIL_LOWER ON STRIPE_CUSTOMERS(LOWER(EMAIL));
+
+-- No query compares the raw column, so the plain index only costs writes
+DROP INDEX IDX_CUSTOMER_EMAIL;
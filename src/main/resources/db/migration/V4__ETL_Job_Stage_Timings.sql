@@ -0,0 +1,11 @@
+-- Per-stage timing breakdown of each ETL job, null for jobs recorded before this migration
+
+ALTER TABLE ETL_JOB_HISTORY ADD (
+    API_FETCH_MS NUMBER(19),
+    MAPPING_MS NUMBER(19),
+    DB_WRITE_MS NUMBER(19),
+    COMMIT_MS NUMBER(19),
+    API_CALLS NUMBER(10),
+    BYTES_RECEIVED NUMBER(19),
+    BATCH_COUNT NUMBER(10)
+);
@@ -0,0 +1,26 @@
+-- Per-day, per-job rollup of finished ETL jobs, maintained by completeJob/failJob with MERGE
+
+CREATE TABLE ETL_JOB_DAILY_ROLLUP (
+    ROLLUP_DATE DATE NOT NULL,
+    JOB_NAME VARCHAR2(100) NOT NULL,
+    COMPLETED_COUNT NUMBER(10) DEFAULT 0 NOT NULL,
+    FAILED_COUNT NUMBER(10) DEFAULT 0 NOT NULL,
+    RECORDS_PROCESSED NUMBER(19) DEFAULT 0 NOT NULL,
+    TOTAL_DURATION_MS NUMBER(19) DEFAULT 0 NOT NULL,
+    MAX_DURATION_MS NUMBER(19) DEFAULT 0 NOT NULL,
+    CONSTRAINT PK_ETL_JOB_DAILY_ROLLUP PRIMARY KEY (ROLLUP_DATE, JOB_NAME)
+);
+
+-- Backfill from the jobs already recorded
+INSERT INTO ETL_JOB_DAILY_ROLLUP (ROLLUP_DATE, JOB_NAME, COMPLETED_COUNT, FAILED_COUNT, RECORDS_PROCESSED,
+                                  TOTAL_DURATION_MS, MAX_DURATION_MS)
+SELECT TRUNC(START_TIME),
+       JOB_NAME,
+       SUM(CASE WHEN STATUS = 'COMPLETED' THEN 1 ELSE 0 END),
+       SUM(CASE WHEN STATUS = 'FAILED' THEN 1 ELSE 0 END),
+       NVL(SUM(RECORDS_PROCESSED), 0),
+       NVL(SUM(ROUND((CAST(END_TIME AS DATE) - CAST(START_TIME AS DATE)) * 86400000)), 0),
+       NVL(MAX(ROUND((CAST(END_TIME AS DATE) - CAST(START_TIME AS DATE)) * 86400000)), 0)
+FROM ETL_JOB_HISTORY
+WHERE STATUS IN ('COMPLETED', 'FAILED')
+GROUP BY TRUNC(START_TIME), JOB_NAME;
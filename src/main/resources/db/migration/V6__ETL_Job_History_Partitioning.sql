@@ -0,0 +1,16 @@
+-- Monthly interval partitions on START_TIME, so recent-window queries prune to recent partitions
+-- and JobHistoryRetentionScheduler can compress or drop whole months instead of deleting rows.
+-- Everything before the transition point stays in P_BEFORE_2024; later months get a partition
+-- created automatically on first insert.
+--
+-- Prerequisites: Oracle 12.2 or later with the Partitioning option, and online DDL for the
+-- ONLINE conversion. Enterprise Edition needs Partitioning licensed; XE 18c and later include
+-- both. Standard Edition 2 fails here. OracleMigrationTest (-Poracle-it) applies it to XE.
+
+ALTER TABLE ETL_JOB_HISTORY MODIFY
+    PARTITION BY RANGE (START_TIME) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_BEFORE_2024 VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+    ONLINE
+    UPDATE INDEXES (IDX_JOB_NAME_START_TIME LOCAL);
+
+-- The JOB_ID primary key index stays global; partition maintenance uses UPDATE GLOBAL INDEXES
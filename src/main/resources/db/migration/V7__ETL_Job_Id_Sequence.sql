@@ -0,0 +1,14 @@
+-- Job IDs come from SEQ_ETL_JOB_ID instead of the identity column, so JobHistoryRecorder can
+-- allocate IDs up front and insert job rows later in JDBC batches (identity inserts cannot batch).
+
+ALTER TABLE ETL_JOB_HISTORY MODIFY JOB_ID DROP IDENTITY;
+
+-- Restart the sequence (unused until now) above the existing IDs
+DECLARE
+    next_id NUMBER;
+BEGIN
+    SELECT NVL(MAX(JOB_ID), 0) + 1 INTO next_id FROM ETL_JOB_HISTORY;
+    EXECUTE IMMEDIATE 'DROP SEQUENCE SEQ_ETL_JOB_ID';
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE SEQ_ETL_JOB_ID START WITH ' || next_id || ' INCREMENT BY 1 CACHE 100 NOCYCLE';
+END;
+/
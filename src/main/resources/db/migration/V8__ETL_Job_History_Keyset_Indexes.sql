@@ -0,0 +1,9 @@
+-- Keyset pages of job history are ordered by (START_TIME DESC, JOB_ID DESC). With JOB_ID in the
+-- index the first page and every page after a cursor are read straight off the index, stopping
+-- after limit rows, instead of sorting every matching row.
+
+DROP INDEX IDX_JOB_NAME_START_TIME;
+CREATE INDEX IDX_JOB_NAME_START_TIME ON ETL_JOB_HISTORY(JOB_NAME, START_TIME, JOB_ID) LOCAL;
+
+-- Same for the recent-jobs listing, which has no job name
+CREATE INDEX IDX_JOB_START_TIME ON ETL_JOB_HISTORY(START_TIME, JOB_ID) LOCAL;
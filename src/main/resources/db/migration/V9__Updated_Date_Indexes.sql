@@ -0,0 +1,7 @@
+-- DataVersionTracker reloads COUNT(*) and MAX(UPDATED_DATE) of the customer and payment tables
+-- in the background to notice writes made by other instances. These indexes let the MAX be
+-- read off the end of an index instead of scanning the table on every reload.
+
+CREATE INDEX IDX_CUSTOMER_UPDATED ON STRIPE_CUSTOMERS(UPDATED_DATE);
+
+CREATE INDEX IDX_PAYMENT_UPDATED ON STRIPE_PAYMENTS(UPDATED_DATE);
@@ -0,0 +1,91 @@
+package com.lunar.stripelunar.benchmark;
+
+import com.lunar.stripelunar.component.ETLMetricsProcessor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of ETLMetricsProcessor on the exchange path when many Camel threads hit the
+ * same operation at once, which is the worst case for shared counters. Compare the
+ * per-op time at 1 thread with 32 to see how much contention costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ETLMetricsProcessorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedProcessor {
+        ETLMetricsProcessor processor;
+        CamelContext camelContext;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            processor = new ETLMetricsProcessor();
+            camelContext = new DefaultCamelContext();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            camelContext.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadExchange {
+        Exchange exchange;
+
+        @Setup(Level.Iteration)
+        public void setUp(SharedProcessor shared) {
+            exchange = new DefaultExchange(shared.camelContext);
+            exchange.getIn().setHeader("operation", "syncPayments");
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object process_1Thread(SharedProcessor shared, ThreadExchange thread) throws Exception {
+        shared.processor.process(thread.exchange);
+        return thread.exchange.getProperty("etlMetrics");
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Object process_32Threads(SharedProcessor shared, ThreadExchange thread) throws Exception {
+        shared.processor.process(thread.exchange);
+        return thread.exchange.getProperty("etlMetrics");
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void recordCompletion_32Threads(SharedProcessor shared) {
+        shared.processor.recordCompletion("syncPayments", 1_500_000, true, 100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Map<String, Object> getAllMetrics_WhileRecording(SharedProcessor shared) {
+        shared.processor.recordCompletion("syncCustomers", 2_000_000, true, 10);
+        return shared.processor.getAllMetrics();
+    }
+}
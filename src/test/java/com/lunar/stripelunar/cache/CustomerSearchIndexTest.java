@@ -0,0 +1,152 @@
+package com.lunar.stripelunar.cache;
+
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerSummary;
+import com.lunar.stripelunar.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerSearchIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new CustomerSearchIndex(customerRepository);
+    }
+
+    @Test
+    void search_ShouldMatchEmailNameAndNameWordPrefixes() {
+        // Arrange
+        searchIndex.customersWritten(Arrays.asList(
+                customer("cus_1", "Ada@Example.com", "Ada Lovelace"),
+                customer("cus_2", "grace@example.com", "Grace Hopper")));
+
+        // Act
+        List<CustomerSummary> byEmail = searchIndex.search("ADA@", 10);
+        List<CustomerSummary> byLastName = searchIndex.search("hop", 10);
+        List<CustomerSummary> byAnything = searchIndex.search("g", 10);
+
+        // Assert
+        assertEquals("cus_1", byEmail.get(0).id());
+        assertEquals("cus_2", byLastName.get(0).id());
+        assertEquals(1, byAnything.size(), "Email and name hits for one customer should be returned once");
+    }
+
+    @Test
+    void customersWritten_WhenCustomerUpdated_ShouldDropStaleTerms() {
+        // Arrange
+        searchIndex.customersWritten(Collections.singletonList(customer("cus_1", "old@example.com", "Old Name")));
+
+        // Act
+        searchIndex.customersWritten(Collections.singletonList(customer("cus_1", "new@example.com", "New Name")));
+
+        // Assert
+        assertTrue(searchIndex.search("old", 10).isEmpty());
+        assertEquals(1, searchIndex.search("new", 10).size());
+    }
+
+    @Test
+    void customersWritten_WhenCustomerDeleted_ShouldRemoveFromIndex() {
+        // Arrange
+        searchIndex.customersWritten(Collections.singletonList(customer("cus_1", "ada@example.com", "Ada")));
+        Customer deleted = customer("cus_1", "ada@example.com", "Ada");
+        deleted.setDeleted(true);
+
+        // Act
+        searchIndex.customersWritten(Collections.singletonList(deleted));
+
+        // Assert
+        assertTrue(searchIndex.search("ada", 10).isEmpty());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    void loadOnStartup_ShouldNotOverwriteCustomersWrittenMeanwhile() {
+        // Arrange
+        searchIndex.customersWritten(Collections.singletonList(customer("cus_1", "new@example.com", "Ada")));
+        when(customerRepository.findAllSummaries()).thenReturn(Arrays.asList(
+                CustomerSummary.from(customer("cus_1", "old@example.com", "Ada")),
+                CustomerSummary.from(customer("cus_2", "grace@example.com", "Grace"))));
+
+        // Act
+        searchIndex.loadOnStartup();
+
+        // Assert
+        assertEquals(2, searchIndex.size());
+        assertTrue(searchIndex.search("old", 10).isEmpty());
+        assertEquals(1, searchIndex.search("grace", 10).size());
+    }
+
+    @Test
+    void loadOnStartup_ShouldNotRestoreCustomersDeletedMeanwhile() {
+        // Arrange
+        Customer deleted = customer("cus_1", "ada@example.com", "Ada");
+        deleted.setDeleted(true);
+        when(customerRepository.findAllSummaries()).thenAnswer(invocation -> {
+            // Deletion commits after the snapshot was read
+            searchIndex.customersWritten(Collections.singletonList(deleted));
+            return Collections.singletonList(CustomerSummary.from(customer("cus_1", "ada@example.com", "Ada")));
+        });
+
+        // Act
+        searchIndex.loadOnStartup();
+
+        // Assert
+        assertEquals(0, searchIndex.size());
+        assertTrue(searchIndex.search("ada", 10).isEmpty());
+    }
+
+    @Test
+    void customersWritten_AfterLoad_ShouldStillApplyDeletes() {
+        // Arrange
+        when(customerRepository.findAllSummaries()).thenReturn(Collections.singletonList(
+                CustomerSummary.from(customer("cus_1", "ada@example.com", "Ada"))));
+        searchIndex.loadOnStartup();
+        Customer deleted = customer("cus_1", "ada@example.com", "Ada");
+        deleted.setDeleted(true);
+
+        // Act
+        searchIndex.customersWritten(Collections.singletonList(deleted));
+
+        // Assert
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    void search_ShouldStopAtLimit() {
+        // Arrange
+        searchIndex.customersWritten(Arrays.asList(
+                customer("cus_1", "a1@example.com", null),
+                customer("cus_2", "a2@example.com", null),
+                customer("cus_3", "a3@example.com", null)));
+
+        // Act
+        List<CustomerSummary> matches = searchIndex.search("a", 2);
+
+        // Assert
+        assertEquals(2, matches.size());
+    }
+
+    private Customer customer(String id, String email, String name) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setEmail(email);
+        customer.setName(name);
+        return customer;
+    }
+}
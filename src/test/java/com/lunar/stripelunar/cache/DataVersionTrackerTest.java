@@ -0,0 +1,171 @@
+package com.lunar.stripelunar.cache;
+
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.DataVersion;
+import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.repository.CustomerRepository;
+import com.lunar.stripelunar.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataVersionTrackerTest {
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private StripeEntityCache entityCache;
+    private DataVersionTracker dataVersionTracker;
+
+    @BeforeEach
+    void setUp() {
+        entityCache = new StripeEntityCache(100, 100, 100, Duration.ofMinutes(5));
+        dataVersionTracker = new DataVersionTracker(customerRepository, paymentRepository, entityCache, 100, 100, 100);
+    }
+
+    @Test
+    void customersWritten_ShouldChangeTableAndEntityETags() {
+        // Arrange
+        dataVersionTracker.customerFound("cus_123", dataVersionTracker.customersVersion());
+        dataVersionTracker.customerFound("cus_456", dataVersionTracker.customersVersion());
+        String tableETag = dataVersionTracker.customersETag(null);
+        String customerETag = dataVersionTracker.customerETag("cus_123");
+        String otherCustomerETag = dataVersionTracker.customerETag("cus_456");
+
+        // Act
+        dataVersionTracker.customersWritten(Collections.singletonList(customer("cus_123")));
+
+        // Assert
+        assertNotEquals(tableETag, dataVersionTracker.customersETag(null));
+        assertNotEquals(customerETag, dataVersionTracker.customerETag("cus_123"));
+        assertEquals(otherCustomerETag, dataVersionTracker.customerETag("cus_456"));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void customerETag_WhenCustomerNeitherWrittenNorFound_ShouldBeNull() {
+        // Act & Assert
+        assertNull(dataVersionTracker.customerETag("cus_missing"));
+        assertNull(dataVersionTracker.paymentETag("py_missing"));
+    }
+
+    @Test
+    void paymentsWritten_ShouldChangeCustomerPaymentsETag() {
+        // Arrange
+        String customerPaymentsETag = dataVersionTracker.customerPaymentsETag("cus_123", null);
+
+        // Act
+        dataVersionTracker.paymentsWritten(Collections.singletonList(payment("py_1", "cus_123")), Map.of());
+
+        // Assert
+        assertNotEquals(customerPaymentsETag, dataVersionTracker.customerPaymentsETag("cus_123", null));
+        assertNotNull(dataVersionTracker.paymentETag("py_1"));
+    }
+
+    @Test
+    void paymentsWritten_WhenPaymentMovesCustomer_ShouldChangePreviousOwnerETag() {
+        // Arrange
+        dataVersionTracker.paymentsWritten(Collections.singletonList(payment("py_1", "cus_old")), Map.of());
+        String previousOwnerETag = dataVersionTracker.customerPaymentsETag("cus_old", null);
+
+        // Act
+        dataVersionTracker.paymentsWritten(Collections.singletonList(payment("py_1", "cus_new")),
+                Map.of("py_1", "cus_old"));
+
+        // Assert
+        assertNotEquals(previousOwnerETag, dataVersionTracker.customerPaymentsETag("cus_old", null));
+    }
+
+    @Test
+    void reload_WhenStoredRowsChangedElsewhere_ShouldRetireIssuedETagsAndCachedEntities() {
+        // Arrange
+        when(customerRepository.findDataVersion())
+                .thenReturn(new DataVersion(1L, UPDATED))
+                .thenReturn(new DataVersion(2L, UPDATED.plusMinutes(1)));
+        when(paymentRepository.findDataVersion()).thenReturn(new DataVersion(0L, null));
+        dataVersionTracker.reload();
+        dataVersionTracker.customerFound("cus_123", dataVersionTracker.customersVersion());
+        String customerETag = dataVersionTracker.customerETag("cus_123");
+        String paymentsETag = dataVersionTracker.paymentsETag(null);
+        Customer cached = customer("cus_123");
+        entityCache.customersWritten(List.of(cached));
+
+        // Act
+        dataVersionTracker.reload();
+
+        // Assert
+        assertNotEquals(customerETag, dataVersionTracker.customerETag("cus_123"));
+        assertEquals(paymentsETag, dataVersionTracker.paymentsETag(null));
+        assertNull(entityCache.getCustomer("cus_123", id -> null));
+    }
+
+    @Test
+    void reload_WhenStoredRowsUnchanged_ShouldKeepETags() {
+        // Arrange
+        when(customerRepository.findDataVersion()).thenReturn(new DataVersion(1L, UPDATED));
+        when(paymentRepository.findDataVersion()).thenReturn(new DataVersion(1L, UPDATED));
+        dataVersionTracker.reload();
+        String customersETag = dataVersionTracker.customersETag(null);
+
+        // Act
+        dataVersionTracker.reload();
+
+        // Assert
+        assertEquals(customersETag, dataVersionTracker.customersETag(null));
+    }
+
+    @Test
+    void etags_ShouldBeQuotedAndStableWithoutWrites() {
+        // Arrange
+        dataVersionTracker.customerFound("cus_123", dataVersionTracker.customersVersion());
+
+        // Act
+        String first = dataVersionTracker.customerETag("cus_123");
+        String second = dataVersionTracker.customerETag("cus_123");
+
+        // Assert
+        assertEquals(first, second);
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+    }
+
+    @Test
+    void listETags_ShouldDifferBetweenSummaryAndFullRepresentations() {
+        // Act & Assert
+        assertNotEquals(dataVersionTracker.customersETag(null),
+                dataVersionTracker.customersETag(DataVersionTracker.FIELDS_FULL));
+        assertNotEquals(dataVersionTracker.paymentsETag(null),
+                dataVersionTracker.paymentsETag(DataVersionTracker.FIELDS_FULL));
+        assertNotEquals(dataVersionTracker.customerPaymentsETag("cus_123", null),
+                dataVersionTracker.customerPaymentsETag("cus_123", DataVersionTracker.FIELDS_FULL));
+    }
+
+    private Customer customer(String id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        return customer;
+    }
+
+    private Payment payment(String id, String customerId) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setCustomerId(customerId);
+        return payment;
+    }
+}
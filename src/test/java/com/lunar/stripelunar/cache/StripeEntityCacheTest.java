@@ -0,0 +1,166 @@
+package com.lunar.stripelunar.cache;
+
+import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripeEntityCacheTest {
+
+    private StripeEntityCache entityCache;
+
+    @BeforeEach
+    void setUp() {
+        entityCache = new StripeEntityCache(100, 100, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void customersWritten_ShouldRefreshCachedCustomer() {
+        // Arrange
+        Customer stale = customer("cus_123", "old@example.com");
+        entityCache.getCustomer("cus_123", id -> stale);
+        Customer fresh = customer("cus_123", "new@example.com");
+
+        // Act
+        entityCache.customersWritten(Collections.singletonList(fresh));
+
+        // Assert
+        Customer cached = entityCache.getCustomer("cus_123", id -> fail("Loader should not be called"));
+        assertEquals("new@example.com", cached.getEmail());
+    }
+
+    @Test
+    void paymentsWritten_ShouldInvalidateCustomerPaymentLists() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        entityCache.getPaymentsByCustomer("cus_123", id -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+
+        // Act
+        entityCache.paymentsWritten(Collections.singletonList(payment("py_1", "cus_123")), Map.of());
+        List<Payment> reloaded = entityCache.getPaymentsByCustomer("cus_123", id -> {
+            loads.incrementAndGet();
+            return Collections.singletonList(payment("py_1", "cus_123"));
+        });
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(1, reloaded.size());
+    }
+
+    @Test
+    void paymentsWritten_WhenPaymentMovesCustomer_ShouldInvalidatePreviousOwnerList() {
+        // Arrange: the payment itself was never cached, only its old owner's list
+        entityCache.getPaymentsByCustomer("cus_old", id -> Collections.singletonList(payment("py_1", "cus_old")));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        entityCache.paymentsWritten(Collections.singletonList(payment("py_1", "cus_new")), Map.of("py_1", "cus_old"));
+        entityCache.getPaymentsByCustomer("cus_old", id -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getCustomer_WhenCallerMutatesResult_ShouldNotChangeCachedCopy() {
+        // Arrange
+        Customer written = customer("cus_123", "ada@example.com");
+        entityCache.customersWritten(Collections.singletonList(written));
+
+        // Act
+        written.setEmail("changed-after-write@example.com");
+        entityCache.getCustomer("cus_123", id -> fail("Loader should not be called"))
+                .setEmail("changed-after-read@example.com");
+
+        // Assert
+        Customer cached = entityCache.getCustomer("cus_123", id -> fail("Loader should not be called"));
+        assertEquals("ada@example.com", cached.getEmail());
+    }
+
+    @Test
+    void getCustomers_ShouldLoadOnlyMissesAndNotCacheUnknownIds() {
+        // Arrange
+        entityCache.getCustomer("cus_1", id -> customer(id, "one@example.com"));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Map<String, Customer> first = entityCache.getCustomers(List.of("cus_1", "cus_2", "cus_unknown"), missing -> {
+            loads.incrementAndGet();
+            assertFalse(missing.contains("cus_1"));
+            return Map.of("cus_2", customer("cus_2", "two@example.com"));
+        });
+        entityCache.getCustomers(List.of("cus_unknown"), missing -> {
+            loads.incrementAndGet();
+            return Map.of();
+        });
+
+        // Assert
+        assertEquals(2, first.size());
+        assertFalse(first.containsKey("cus_unknown"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getStatistics_ShouldReportHitsAndMisses() {
+        // Arrange
+        entityCache.getCustomer("cus_123", id -> customer(id, "test@example.com"));
+        entityCache.getCustomer("cus_123", id -> customer(id, "test@example.com"));
+
+        // Act
+        Map<String, Object> statistics = entityCache.getStatistics();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Object> customers = (Map<String, Object>) statistics.get("customers");
+        assertEquals(1L, customers.get("hitCount"));
+        assertEquals(1L, customers.get("missCount"));
+        assertTrue(statistics.containsKey("payments"));
+        assertTrue(statistics.containsKey("customerPayments"));
+    }
+
+    @Test
+    void bindTo_ShouldPublishCacheMetersPerCache() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        entityCache.bindTo(registry);
+
+        // Act
+        entityCache.getCustomer("cus_123", id -> customer(id, "test@example.com"));
+        entityCache.getCustomer("cus_123", id -> customer(id, "test@example.com"));
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "customers", "result", "hit").functionCounter().count());
+        assertNotNull(registry.find("cache.size").tag("cache", "customerPayments").gauge());
+    }
+
+    private Customer customer(String id, String email) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setEmail(email);
+        return customer;
+    }
+
+    private Payment payment(String id, String customerId) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setCustomerId(customerId);
+        payment.setAmount(new BigDecimal("10.00"));
+        return payment;
+    }
+}
@@ -0,0 +1,116 @@
+package com.lunar.stripelunar.component;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConditionalGetProcessorTest {
+
+    private static final String VERSION = "\"abc-customer-3\"";
+    private static final String ETAG = "W/\"abc-customer-3-json\"";
+
+    private ConditionalGetProcessor conditionalGetProcessor;
+    private Exchange exchange;
+
+    @BeforeEach
+    void setUp() {
+        conditionalGetProcessor = new ConditionalGetProcessor();
+        exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.setProperty(ConditionalGetProcessor.ETAG_PROPERTY, VERSION);
+    }
+
+    @Test
+    void process_WhenETagMatches_ShouldAnswerNotModifiedAndStopRoute() throws Exception {
+        // Arrange
+        exchange.getIn().setHeader("If-None-Match", ETAG);
+        exchange.getIn().setBody("request");
+
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertEquals(304, exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertEquals(ETAG, exchange.getIn().getHeader("ETag"));
+        assertNull(exchange.getIn().getBody());
+        assertNull(exchange.getIn().getHeader("If-None-Match"));
+        assertEquals("Accept, Accept-Encoding", exchange.getIn().getHeader("Vary"));
+        assertTrue(exchange.isRouteStop());
+    }
+
+    @Test
+    void process_WhenETagDiffers_ShouldContinueWithETagHeader() throws Exception {
+        // Arrange
+        exchange.getIn().setHeader("If-None-Match", "W/\"abc-customer-2-json\"");
+
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertNull(exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        assertEquals(ETAG, exchange.getIn().getHeader("ETag"));
+        assertFalse(exchange.isRouteStop());
+    }
+
+    @Test
+    void process_WhenNoConditionalHeader_ShouldContinueWithETagHeader() throws Exception {
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertEquals(ETAG, exchange.getIn().getHeader("ETag"));
+        assertFalse(exchange.isRouteStop());
+    }
+
+    @Test
+    void process_WhenTagWasIssuedForAnotherMediaType_ShouldNotAnswerNotModified() throws Exception {
+        // Arrange
+        exchange.getIn().setHeader("If-None-Match", ETAG);
+        exchange.getIn().setHeader("Accept", ResponseEncodingProcessor.APPLICATION_SMILE);
+
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertEquals("W/\"abc-customer-3-x-jackson-smile\"", exchange.getIn().getHeader("ETag"));
+        assertFalse(exchange.isRouteStop());
+    }
+
+    @Test
+    void process_WhenPrettyJsonRequested_ShouldTagItApartFromCompactJson() throws Exception {
+        // Arrange
+        exchange.getIn().setHeader("pretty", true);
+
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertEquals("W/\"abc-customer-3-json-pretty\"", exchange.getIn().getHeader("ETag"));
+    }
+
+    @Test
+    void process_WhenNoETagForResource_ShouldContinueEvenForWildcard() throws Exception {
+        // Arrange
+        exchange.removeProperty(ConditionalGetProcessor.ETAG_PROPERTY);
+        exchange.getIn().setHeader("If-None-Match", "*");
+
+        // Act
+        conditionalGetProcessor.process(exchange);
+
+        // Assert
+        assertNull(exchange.getIn().getHeader("ETag"));
+        assertFalse(exchange.isRouteStop());
+    }
+
+    @Test
+    void matches_ShouldHandleWeakListsAndWildcard() {
+        assertTrue(ConditionalGetProcessor.matches("\"other\", " + ETAG, ETAG));
+        assertTrue(ConditionalGetProcessor.matches("\"abc-customer-3-json\"", ETAG));
+        assertTrue(ConditionalGetProcessor.matches("*", ETAG));
+        assertFalse(ConditionalGetProcessor.matches("\"other\"", ETAG));
+        assertFalse(ConditionalGetProcessor.matches(null, ETAG));
+    }
+}
@@ -1,5 +1,6 @@
 package com.lunar.stripelunar.component;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -127,4 +129,88 @@ public class ETLMetricsProcessorTest {
         // Assert
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void recordCompletion_ShouldTrackOutcomesLatencyAndThroughput() {
+        // Arrange
+        ETLMetricsProcessor processor = new ETLMetricsProcessor();
+
+        // Act
+        processor.recordCompletion("syncPayments", TimeUnit.MILLISECONDS.toNanos(100), true, 50);
+        processor.recordCompletion("syncPayments", TimeUnit.MILLISECONDS.toNanos(300), true, 150);
+        processor.recordCompletion("syncPayments", TimeUnit.MILLISECONDS.toNanos(600), false, 0);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Object> opMetrics = (Map<String, Object>) processor.getAllMetrics().get("syncPayments");
+        assertEquals(3L, opMetrics.get("executionCount"));
+        assertNotNull(opMetrics.get("lastExecutionTime"));
+        assertEquals(2L, opMetrics.get("successCount"));
+        assertEquals(1L, opMetrics.get("failureCount"));
+        assertEquals(200L, opMetrics.get("recordsProcessed"));
+        assertEquals(200.0, (Double) opMetrics.get("recordsPerSecond"), 0.001);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> latency = (Map<String, Object>) opMetrics.get("latencyMs");
+        assertEquals(3L, latency.get("count"));
+        assertEquals(300L, ((Number) latency.get("p50")).longValue(), 1);
+        assertEquals(600L, ((Number) latency.get("max")).longValue(), 1);
+    }
+
+    @Test
+    void recordCompletion_WhenBoundToRegistry_ShouldPublishMeters() {
+        // Arrange
+        ETLMetricsProcessor processor = new ETLMetricsProcessor();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        processor.bindTo(registry);
+
+        // Act
+        processor.recordCompletion("syncCustomers", TimeUnit.MILLISECONDS.toNanos(250), true, 40);
+
+        // Assert
+        assertEquals(1L, registry.get("etl.operation.duration")
+                .tags("operation", "syncCustomers", "outcome", "success").timer().count());
+        assertEquals(40.0, registry.get("etl.records.processed")
+                .tag("operation", "syncCustomers").counter().count());
+    }
+
+    @Test
+    void recordCompletion_ShouldReportRollingWindowRates() {
+        // Arrange
+        ETLMetricsProcessor processor = new ETLMetricsProcessor();
+
+        // Act
+        processor.recordCompletion("syncAll", TimeUnit.SECONDS.toNanos(1), true, 600);
+        processor.recordCompletion("syncAll", TimeUnit.SECONDS.toNanos(1), false, 0);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Object> opMetrics = (Map<String, Object>) processor.getAllMetrics().get("syncAll");
+        @SuppressWarnings("unchecked")
+        Map<String, Double> executions = (Map<String, Double>) opMetrics.get("executionsPerMinute");
+        @SuppressWarnings("unchecked")
+        Map<String, Double> records = (Map<String, Double>) opMetrics.get("recentRecordsPerSecond");
+        assertEquals(2.0, executions.get("1m"), 0.001);
+        assertEquals(0.4, executions.get("5m"), 0.001);
+        assertEquals(10.0, records.get("1m"), 0.001);
+        assertEquals(600.0 / 900, records.get("15m"), 0.001);
+    }
+
+    @Test
+    void process_ShouldPublishMetricsWithoutCountingAnExecution() throws Exception {
+        // Arrange
+        ETLMetricsProcessor processor = new ETLMetricsProcessor();
+        when(message.getHeader("operation", String.class)).thenReturn("status");
+
+        // Act
+        processor.process(exchange);
+        processor.recordCompletion("status", TimeUnit.MILLISECONDS.toNanos(5), true, 0);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Object> opMetrics = (Map<String, Object>) processor.getAllMetrics().get("status");
+        assertEquals(1L, opMetrics.get("executionCount"));
+        assertEquals(1L, opMetrics.get("successCount"));
+        verify(exchange).setProperty(eq("etlMetrics"), any(Map.class));
+    }
 }
@@ -0,0 +1,80 @@
+package com.lunar.stripelunar.component;
+
+import com.lunar.stripelunar.service.StripeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadinessMonitorTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private StripeService stripeService;
+
+    private ReadinessMonitor readinessMonitor;
+
+    @BeforeEach
+    void setUp() {
+        readinessMonitor = new ReadinessMonitor(dataSource, stripeService);
+    }
+
+    @Test
+    void refresh_WhenDatabaseAnswers_ShouldBeReadyWithCounts() throws SQLException {
+        // Arrange
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(stripeService.countCustomers()).thenReturn(100L);
+        when(stripeService.countPayments()).thenReturn(250L);
+
+        // Act
+        readinessMonitor.refresh();
+
+        // Assert
+        assertTrue(readinessMonitor.isReady());
+        assertEquals(100L, readinessMonitor.getSnapshot().customerCount());
+        assertEquals(250L, readinessMonitor.getSnapshot().paymentCount());
+        verify(connection).close();
+    }
+
+    @Test
+    void refresh_WhenConnectionFails_ShouldNotBeReady() throws SQLException {
+        // Arrange
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act
+        readinessMonitor.refresh();
+
+        // Assert
+        assertFalse(readinessMonitor.isReady());
+        assertEquals("Connection refused", readinessMonitor.getSnapshot().error());
+        verifyNoInteractions(stripeService);
+    }
+
+    @Test
+    void isReady_WhenSnapshotStale_ShouldNotBeReady() {
+        // Arrange
+        ReflectionTestUtils.setField(readinessMonitor, "snapshot",
+                new ReadinessMonitor.Snapshot(true, 1, 0, 0, Instant.now().minusSeconds(120), null));
+
+        // Act & Assert
+        assertFalse(readinessMonitor.isReady());
+        assertFalse(new ReadinessMonitor(dataSource, stripeService).isReady());
+    }
+}
@@ -0,0 +1,162 @@
+package com.lunar.stripelunar.component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseEncodingProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ResponseEncodingProcessor responseEncodingProcessor;
+    private Exchange exchange;
+
+    @BeforeEach
+    void setUp() {
+        responseEncodingProcessor = new ResponseEncodingProcessor(objectMapper, 64);
+        exchange = new DefaultExchange(new DefaultCamelContext());
+    }
+
+    @Test
+    void process_WithoutAccept_ShouldWriteCompactJson() throws Exception {
+        // Arrange
+        exchange.getMessage().setBody(Map.of("id", "cus_123"));
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertEquals("application/json", exchange.getMessage().getHeader(Exchange.CONTENT_TYPE));
+        assertEquals("{\"id\":\"cus_123\"}", new String(exchange.getMessage().getBody(byte[].class), StandardCharsets.UTF_8));
+        assertNull(exchange.getMessage().getHeader("Content-Encoding"));
+        assertEquals("Accept, Accept-Encoding", exchange.getMessage().getHeader("Vary"));
+    }
+
+    @Test
+    void process_WhenBodyEmpty_ShouldStillSetVaryAndDropConditionalHeader() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("If-None-Match", "W/\"abc-customer-3-json\"");
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertEquals("Accept, Accept-Encoding", exchange.getMessage().getHeader("Vary"));
+        assertNull(exchange.getMessage().getHeader("If-None-Match"));
+    }
+
+    @Test
+    void process_WhenSmileAccepted_ShouldWriteSmile() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("Accept", "application/x-jackson-smile, application/json;q=0.5");
+        exchange.getMessage().setBody(Map.of("id", "cus_123"));
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertEquals(ResponseEncodingProcessor.APPLICATION_SMILE, exchange.getMessage().getHeader(Exchange.CONTENT_TYPE));
+        Map<?, ?> decoded = new ObjectMapper(new SmileFactory()).readValue(exchange.getMessage().getBody(byte[].class), Map.class);
+        assertEquals("cus_123", decoded.get("id"));
+        assertNull(exchange.getMessage().getHeader("Accept"));
+    }
+
+    @Test
+    void process_WhenCborAccepted_ShouldWriteCbor() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("Accept", "application/cbor");
+        exchange.getMessage().setBody(Map.of("id", "py_123"));
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        Map<?, ?> decoded = new ObjectMapper(new CBORFactory()).readValue(exchange.getMessage().getBody(byte[].class), Map.class);
+        assertEquals("py_123", decoded.get("id"));
+    }
+
+    @Test
+    void process_WhenLargeAndGzipAccepted_ShouldGzipBody() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("Accept-Encoding", "gzip, deflate");
+        Map<String, String> body = Map.of("description", "x".repeat(200));
+        exchange.getMessage().setBody(body);
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertEquals("gzip", exchange.getMessage().getHeader("Content-Encoding"));
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(exchange.getMessage().getBody(byte[].class))).readAllBytes();
+        assertEquals(objectMapper.writeValueAsString(body), new String(unzipped, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void route_WhenGzipAccepted_ShouldReturnGzippedBodyThatDecodes() throws Exception {
+        // Arrange
+        Map<String, String> body = Map.of("description", "x".repeat(200));
+        try (DefaultCamelContext camelContext = new DefaultCamelContext()) {
+            camelContext.addRoutes(new RouteBuilder() {
+                @Override
+                public void configure() {
+                    from("direct:customers")
+                            .setBody(constant(body))
+                            .process(responseEncodingProcessor);
+                }
+            });
+            camelContext.start();
+
+            // Act
+            Exchange result = camelContext.createProducerTemplate()
+                    .request("direct:customers", e -> e.getMessage().setHeader("Accept-Encoding", "gzip"));
+
+            // Assert
+            assertNull(result.getException());
+            assertEquals("gzip", result.getMessage().getHeader("Content-Encoding"));
+            byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(result.getMessage().getBody(byte[].class))).readAllBytes();
+            assertEquals(body, objectMapper.readValue(unzipped, Map.class));
+        }
+    }
+
+    @Test
+    void process_WhenLargeAndOnlyDeflateAccepted_ShouldDeflateBody() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("Accept-Encoding", "deflate, gzip;q=0");
+        Map<String, String> body = Map.of("description", "x".repeat(200));
+        exchange.getMessage().setBody(body);
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertEquals("deflate", exchange.getMessage().getHeader("Content-Encoding"));
+        byte[] inflated = new InflaterInputStream(new ByteArrayInputStream(exchange.getMessage().getBody(byte[].class))).readAllBytes();
+        assertEquals(objectMapper.writeValueAsString(body), new String(inflated, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void process_WhenBelowThreshold_ShouldNotCompress() throws Exception {
+        // Arrange
+        exchange.getMessage().setHeader("Accept-Encoding", "gzip");
+        exchange.getMessage().setBody(Map.of("id", "cus_123"));
+
+        // Act
+        responseEncodingProcessor.process(exchange);
+
+        // Assert
+        assertNull(exchange.getMessage().getHeader("Content-Encoding"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.lunar.stripelunar.component;
+
+import com.lunar.stripelunar.repository.CustomerRepository;
+import com.lunar.stripelunar.service.SyncJobContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener.RepositoryMethodInvocation;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SlowOperationSamplerTest {
+
+    private DefaultCamelContext camelContext;
+
+    @BeforeEach
+    void setUp() {
+        camelContext = new DefaultCamelContext();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        camelContext.close();
+    }
+
+    @Test
+    void exchangeFinished_WhenOverThreshold_ShouldCaptureJobContextAndStatements() throws Exception {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(0, 1000, 10);
+        SyncJobContext job = SyncJobContext.open();
+        job.close();
+        job.recordStripeRequestId("req_123");
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeader("operation", "syncPayments");
+        exchange.setProperty("etlJobId", 42L);
+        exchange.setProperty(SyncJobContext.EXCHANGE_PROPERTY, job);
+
+        // Act
+        sampler.exchangeStarted(exchange);
+        sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(30)));
+        sampler.sampleStacks();
+        sampler.exchangeFinished(exchange);
+
+        // Assert
+        List<SlowOperationSampler.SlowOperation> recent = sampler.getRecent();
+        assertEquals(1, recent.size());
+        SlowOperationSampler.SlowOperation captured = recent.get(0);
+        assertEquals("exchange", captured.kind());
+        assertEquals("syncPayments", captured.operation());
+        assertEquals(42L, captured.jobId());
+        assertEquals(List.of("req_123"), captured.stripeRequestIds());
+        assertEquals("CustomerRepository.findAll", captured.statements().get(0).statement());
+        assertEquals(30L, captured.statements().get(0).durationMillis());
+        assertEquals(1, captured.stackSamples().size());
+    }
+
+    @Test
+    void exchangeFinished_WhenUnderThreshold_ShouldNotCapture() {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(60_000, 1000, 10);
+        Exchange exchange = new DefaultExchange(camelContext);
+
+        // Act
+        sampler.exchangeStarted(exchange);
+        sampler.exchangeFinished(exchange);
+
+        // Assert
+        assertTrue(sampler.getRecent().isEmpty());
+    }
+
+    @Test
+    void exchangeFinished_WhenFinishedOnAnotherThread_ShouldDetachStartingThread() throws Exception {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(0, 1000, 10);
+        Exchange exchange = new DefaultExchange(camelContext);
+        sampler.exchangeStarted(exchange);
+
+        // Act
+        Thread completion = new Thread(() -> sampler.exchangeFinished(exchange));
+        completion.start();
+        completion.join();
+        sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(30)));
+
+        // Assert
+        assertEquals(0, sampler.threadsWithExchange());
+        List<SlowOperationSampler.SlowOperation> recent = sampler.getRecent();
+        assertEquals(2, recent.size());
+        assertEquals("repository", recent.get(0).kind());
+        assertTrue(recent.get(1).statements().isEmpty());
+    }
+
+    @Test
+    void exchangeFinished_WhenNested_ShouldReturnThreadToOuterExchange() throws Exception {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(0, 1000, 10);
+        Exchange outer = new DefaultExchange(camelContext);
+        Exchange inner = new DefaultExchange(camelContext);
+        sampler.exchangeStarted(outer);
+        sampler.exchangeStarted(inner);
+
+        // Act
+        sampler.exchangeFinished(inner);
+        sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(30)));
+        sampler.exchangeFinished(outer);
+
+        // Assert
+        List<SlowOperationSampler.SlowOperation> recent = sampler.getRecent();
+        assertEquals(2, recent.size());
+        assertEquals(1, recent.get(0).statements().size());
+        assertTrue(recent.get(1).statements().isEmpty());
+        assertEquals(0, sampler.threadsWithExchange());
+    }
+
+    @Test
+    void afterInvocation_WhenSlowOutsideExchange_ShouldCaptureRepositoryCall() throws Exception {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(100, 1000, 10);
+
+        // Act
+        sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(50)));
+        sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(250)));
+
+        // Assert
+        List<SlowOperationSampler.SlowOperation> recent = sampler.getRecent();
+        assertEquals(1, recent.size());
+        assertEquals("repository", recent.get(0).kind());
+        assertEquals(250L, recent.get(0).durationMillis());
+        assertFalse(recent.get(0).stackSamples().get(0).isEmpty());
+    }
+
+    @Test
+    void getRecent_WhenRingFull_ShouldKeepNewestFirst() throws Exception {
+        // Arrange
+        SlowOperationSampler sampler = new SlowOperationSampler(0, 1000, 2);
+
+        // Act
+        for (long millis = 1; millis <= 3; millis++) {
+            sampler.afterInvocation(invocation(TimeUnit.MILLISECONDS.toNanos(millis)));
+        }
+
+        // Assert
+        List<SlowOperationSampler.SlowOperation> recent = sampler.getRecent();
+        assertEquals(2, recent.size());
+        assertEquals(3L, recent.get(0).durationMillis());
+        assertEquals(2L, recent.get(1).durationMillis());
+    }
+
+    private RepositoryMethodInvocation invocation(long durationNanos) throws NoSuchMethodException {
+        RepositoryMethodInvocation invocation = mock(RepositoryMethodInvocation.class);
+        doReturn(CustomerRepository.class).when(invocation).getRepositoryInterface();
+        when(invocation.getMethod()).thenReturn(CustomerRepository.class.getMethod("findAll"));
+        when(invocation.getDuration(TimeUnit.NANOSECONDS)).thenReturn(durationNanos);
+        return invocation;
+    }
+}
@@ -1,5 +1,6 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.cache.StripeEntityCache;
 import com.lunar.stripelunar.component.TestETLMetricsProcessor;
 import com.lunar.stripelunar.model.Customer;
 import com.lunar.stripelunar.model.Payment;
@@ -14,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -105,8 +107,8 @@ public class ETLControllerTest {
     @Test
     void getStatus_ShouldReturnETLStatus() {
         // Arrange
-        when(stripeService.getAllCustomers()).thenReturn(mockCustomers);
-        when(stripeService.getAllPayments()).thenReturn(mockPayments);
+        when(stripeService.countCustomers()).thenReturn((long) mockCustomers.size());
+        when(stripeService.countPayments()).thenReturn((long) mockPayments.size());
         
         // Add test metrics directly to the TestETLMetricsProcessor
         etlMetricsProcessor.reset();
@@ -132,7 +134,29 @@ public class ETLControllerTest {
         assertNotNull(lastSyncTimes.get("payments"));
         assertNotNull(lastSyncTimes.get("fullSync"));
         
-        verify(stripeService, times(1)).getAllCustomers();
-        verify(stripeService, times(1)).getAllPayments();
+        verify(stripeService, times(1)).countCustomers();
+        verify(stripeService, times(1)).countPayments();
+        verify(stripeService, never()).getAllCustomers();
+        verify(stripeService, never()).getAllPayments();
+    }
+
+    @Test
+    void getCacheStatistics_ShouldReturnStatisticsForEveryCache() {
+        // Arrange
+        ReflectionTestUtils.setField(etlController, "entityCache",
+                new StripeEntityCache(10, 10, 10, Duration.ofMinutes(1)));
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = etlController.getCacheStatistics();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> caches = (Map<String, Object>) response.getBody().get("caches");
+        assertTrue(caches.containsKey("customers"));
+        assertTrue(caches.containsKey("payments"));
+        assertTrue(caches.containsKey("customerPayments"));
+        assertNotNull(response.getBody().get("timestamp"));
     }
 }
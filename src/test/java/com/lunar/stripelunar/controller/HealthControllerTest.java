@@ -1,5 +1,6 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.component.ReadinessMonitor;
 import com.lunar.stripelunar.component.TestETLMetricsProcessor;
 import com.lunar.stripelunar.repository.CustomerRepository;
 import com.lunar.stripelunar.repository.PaymentRepository;
@@ -13,6 +14,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 import java.util.Map;
@@ -29,6 +31,9 @@ public class HealthControllerTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private ReadinessMonitor readinessMonitor;
+
     private TestETLMetricsProcessor etlMetricsProcessor;
 
     @InjectMocks
@@ -139,4 +144,66 @@ public class HealthControllerTest {
         verify(customerRepository, times(1)).count();
         verify(paymentRepository, times(1)).count();
     }
+
+    @Test
+    void liveness_ShouldAnswerWithoutTouchingDependencies() {
+        // Act
+        ResponseEntity<Map<String, Object>> response = healthController.liveness();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("UP", response.getBody().get("status"));
+        verifyNoInteractions(customerRepository, paymentRepository, readinessMonitor);
+    }
+
+    @Test
+    void readiness_WhenSnapshotUp_ShouldReturnCachedCountsWithoutQuerying() {
+        // Arrange
+        ReadinessMonitor.Snapshot snapshot = new ReadinessMonitor.Snapshot(true, 3, 100, 250, Instant.now(), null);
+        when(readinessMonitor.getSnapshot()).thenReturn(snapshot);
+        when(readinessMonitor.isReady()).thenReturn(true);
+        when(readinessMonitor.isStale(snapshot)).thenReturn(false);
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = healthController.readiness();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("UP", response.getBody().get("status"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> database = (Map<String, Object>) response.getBody().get("database");
+        assertEquals(100L, database.get("customerCount"));
+        assertEquals(250L, database.get("paymentCount"));
+        verifyNoInteractions(customerRepository, paymentRepository);
+    }
+
+    @Test
+    void readiness_WhenDatabaseDown_ShouldReturnServiceUnavailable() {
+        // Arrange
+        ReadinessMonitor.Snapshot snapshot = new ReadinessMonitor.Snapshot(false, 2000, -1, -1, Instant.now(),
+                "Connection refused");
+        when(readinessMonitor.getSnapshot()).thenReturn(snapshot);
+        when(readinessMonitor.isReady()).thenReturn(false);
+        when(readinessMonitor.isStale(snapshot)).thenReturn(false);
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = healthController.readiness();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("DOWN", response.getBody().get("status"));
+    }
+
+    @Test
+    void readiness_BeforeFirstRefresh_ShouldReturnStarting() {
+        // Arrange
+        when(readinessMonitor.getSnapshot()).thenReturn(null);
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = healthController.readiness();
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("STARTING", response.getBody().get("status"));
+    }
 }
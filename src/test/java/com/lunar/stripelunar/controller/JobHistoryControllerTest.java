@@ -1,22 +1,30 @@
 package com.lunar.stripelunar.controller;
 
+import com.lunar.stripelunar.model.ETLJobDailyRollup;
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobHistoryCursor;
+import com.lunar.stripelunar.model.JobHistoryPage;
+import com.lunar.stripelunar.model.RunningJobProgress;
 import com.lunar.stripelunar.service.ETLJobHistoryService;
-import com.lunar.stripelunar.util.TestCsvExportUtil;
+import com.lunar.stripelunar.service.RunningJobTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,7 +35,8 @@ public class JobHistoryControllerTest {
     @Mock
     private ETLJobHistoryService etlJobHistoryService;
 
-    private TestCsvExportUtil csvExportUtil = new TestCsvExportUtil();
+    @Mock
+    private RunningJobTracker runningJobTracker;
 
     @InjectMocks
     private JobHistoryController jobHistoryController;
@@ -38,11 +47,6 @@ public class JobHistoryControllerTest {
 
     @BeforeEach
     void setUp() {
-        // Reset the test CSV export util
-        csvExportUtil.reset();
-        
-        // Manually set the csvExportUtil in the controller
-        ReflectionTestUtils.setField(jobHistoryController, "csvExportUtil", csvExportUtil);
         // Setup mock job history records
         mockJobs = new ArrayList<>();
         
@@ -94,34 +98,61 @@ public class JobHistoryControllerTest {
         // Arrange
         String jobName = "syncCustomers";
         List<ETLJobHistory> expectedJobs = Collections.singletonList(mockJobs.get(0));
-        when(etlJobHistoryService.getJobExecutions(jobName)).thenReturn(expectedJobs);
+        when(etlJobHistoryService.getJobExecutions(jobName, 0, null))
+                .thenReturn(new JobHistoryPage(expectedJobs, null, 100));
 
         // Act
-        ResponseEntity<List<ETLJobHistory>> response = jobHistoryController.getJobExecutions(jobName);
+        ResponseEntity<List<ETLJobHistory>> response = jobHistoryController.getJobExecutions(jobName, 0, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
         assertEquals("syncCustomers", response.getBody().get(0).getJobName());
+        assertNull(response.getHeaders().getFirst(JobHistoryController.NEXT_CURSOR_HEADER));
         
-        verify(etlJobHistoryService, times(1)).getJobExecutions(jobName);
+        verify(etlJobHistoryService, times(1)).getJobExecutions(jobName, 0, null);
+    }
+
+    @Test
+    void getJobExecutions_WithCursor_ShouldDecodeItAndReturnNextCursorHeader() {
+        // Arrange
+        JobHistoryCursor before = new JobHistoryCursor(testStartDate, 7L);
+        when(etlJobHistoryService.getJobExecutions("syncPayments", 2, before))
+                .thenReturn(new JobHistoryPage(mockJobs.subList(0, 2), "next-token", 2));
+
+        // Act
+        ResponseEntity<List<ETLJobHistory>> response =
+                jobHistoryController.getJobExecutions("syncPayments", 2, before.encode());
+
+        // Assert
+        assertEquals(2, response.getBody().size());
+        assertEquals("next-token", response.getHeaders().getFirst(JobHistoryController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getJobExecutions_WithMalformedCursor_ShouldRejectRequest() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> jobHistoryController.getJobExecutions("syncPayments", 0, "not-a-cursor"));
+        verifyNoInteractions(etlJobHistoryService);
     }
 
     @Test
     void getRecentJobs_ShouldReturnJobsAfterStartDate() {
         // Arrange
-        when(etlJobHistoryService.getJobsAfterDate(testStartDate)).thenReturn(mockJobs);
+        when(etlJobHistoryService.getJobsAfterDate(testStartDate, 0, null))
+                .thenReturn(new JobHistoryPage(mockJobs, null, 100));
 
         // Act
-        ResponseEntity<List<ETLJobHistory>> response = jobHistoryController.getRecentJobs(testStartDate);
+        ResponseEntity<List<ETLJobHistory>> response = jobHistoryController.getRecentJobs(testStartDate, 0, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(3, response.getBody().size());
         
-        verify(etlJobHistoryService, times(1)).getJobsAfterDate(testStartDate);
+        verify(etlJobHistoryService, times(1)).getJobsAfterDate(testStartDate, 0, null);
     }
 
     @Test
@@ -158,6 +189,21 @@ public class JobHistoryControllerTest {
         verify(etlJobHistoryService, times(1)).getLastJobExecution(jobName);
     }
 
+    @Test
+    void getRunningJobs_ShouldReturnTrackerProgress() {
+        // Arrange
+        RunningJobProgress progress = new RunningJobProgress(7L, "syncPayments", testStartDate, 42,
+                "DB_WRITE", "charges", 3, 300, true, 12.5, 28L);
+        when(runningJobTracker.getRunningJobs()).thenReturn(List.of(progress));
+
+        // Act
+        ResponseEntity<List<RunningJobProgress>> response = jobHistoryController.getRunningJobs();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(progress), response.getBody());
+    }
+
     @Test
     void getJobStatistics_ShouldReturnStatistics() {
         // Arrange
@@ -185,61 +231,106 @@ public class JobHistoryControllerTest {
     void exportJobHistory_WithJobName_ShouldExportJobsForSpecificJobName() throws IOException {
         // Arrange
         String jobName = "syncCustomers";
-        List<ETLJobHistory> expectedJobs = Collections.singletonList(mockJobs.get(0));
-        when(etlJobHistoryService.getJobExecutions(jobName)).thenReturn(expectedJobs);
-        
         MockHttpServletResponse response = new MockHttpServletResponse();
         
         // Act
-        jobHistoryController.exportJobHistory(jobName, null, response);
+        jobHistoryController.exportJobHistory(jobName, null, null, null, response);
         
         // Assert
-        assertEquals("text/csv", response.getContentType());
+        assertCsvUtf8(response);
         assertTrue(response.getHeader("Content-Disposition").contains("attachment"));
         assertTrue(response.getHeader("Content-Disposition").contains(".csv"));
+        assertNull(response.getHeader("Content-Encoding"));
         
-        verify(etlJobHistoryService, times(1)).getJobExecutions(jobName);
-        assertTrue(csvExportUtil.wasExportCalled());
-        assertEquals(expectedJobs, csvExportUtil.getLastExportedJobs());
+        verify(etlJobHistoryService, times(1)).exportJobHistory(eq(jobName), isNull(), isNull(), any(Writer.class));
     }
 
     @Test
-    void exportJobHistory_WithStartDate_ShouldExportJobsAfterStartDate() throws IOException {
+    void exportJobHistory_WithJobNameAndDateRange_ShouldApplyEveryFilter() throws IOException {
         // Arrange
-        when(etlJobHistoryService.getJobsAfterDate(testStartDate)).thenReturn(mockJobs);
-        
+        LocalDateTime endDate = testStartDate.plusYears(2);
         MockHttpServletResponse response = new MockHttpServletResponse();
         
         // Act
-        jobHistoryController.exportJobHistory(null, testStartDate, response);
+        jobHistoryController.exportJobHistory("syncPayments", testStartDate, endDate, null, response);
         
         // Assert
-        assertEquals("text/csv", response.getContentType());
-        assertTrue(response.getHeader("Content-Disposition").contains("attachment"));
-        assertTrue(response.getHeader("Content-Disposition").contains(".csv"));
-        
-        verify(etlJobHistoryService, times(1)).getJobsAfterDate(testStartDate);
-        assertTrue(csvExportUtil.wasExportCalled());
-        assertEquals(mockJobs, csvExportUtil.getLastExportedJobs());
+        assertCsvUtf8(response);
+        verify(etlJobHistoryService, times(1))
+                .exportJobHistory(eq("syncPayments"), eq(testStartDate), eq(endDate), any(Writer.class));
     }
 
     @Test
-    void exportJobHistory_WithNoParameters_ShouldExportLast30DaysJobs() throws IOException {
+    void exportJobHistory_WithNoParameters_ShouldExportAllJobsWithoutDateLimit() throws IOException {
         // Arrange
-        when(etlJobHistoryService.getJobsAfterDate(any(LocalDateTime.class))).thenReturn(mockJobs);
-        
         MockHttpServletResponse response = new MockHttpServletResponse();
         
         // Act
-        jobHistoryController.exportJobHistory(null, null, response);
+        jobHistoryController.exportJobHistory("", null, null, null, response);
         
         // Assert
-        assertEquals("text/csv", response.getContentType());
-        assertTrue(response.getHeader("Content-Disposition").contains("attachment"));
-        assertTrue(response.getHeader("Content-Disposition").contains(".csv"));
+        assertCsvUtf8(response);
+        verify(etlJobHistoryService, times(1)).exportJobHistory(isNull(), isNull(), isNull(), any(Writer.class));
+    }
+
+    @Test
+    void exportJobHistory_WithoutGzip_ShouldWriteNonLatin1TextAsUtf8() throws IOException {
+        // Arrange
+        when(etlJobHistoryService.exportJobHistory(isNull(), isNull(), isNull(), any(Writer.class))).thenAnswer(invocation -> {
+            invocation.getArgument(3, Writer.class).write("1,syncCustomers,Клиент не найден €\n");
+            return 1L;
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        jobHistoryController.exportJobHistory(null, null, null, null, response);
+
+        // Assert
+        assertCsvUtf8(response);
+        assertEquals("1,syncCustomers,Клиент не найден €\n",
+                new String(response.getContentAsByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportJobHistory_WhenClientAcceptsGzip_ShouldCompressResponse() throws IOException {
+        // Arrange
+        when(etlJobHistoryService.exportJobHistory(isNull(), isNull(), isNull(), any(Writer.class))).thenAnswer(invocation -> {
+            invocation.getArgument(3, Writer.class).write("Job ID,Job Name\n");
+            return 0L;
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
         
-        verify(etlJobHistoryService, times(1)).getJobsAfterDate(any(LocalDateTime.class));
-        assertTrue(csvExportUtil.wasExportCalled());
-        assertEquals(mockJobs, csvExportUtil.getLastExportedJobs());
+        // Act
+        jobHistoryController.exportJobHistory(null, null, null, "gzip, deflate", response);
+        
+        // Assert
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals("Job ID,Job Name\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void getDailyRollups_ShouldReadRollupsFromFirstDayOfRange() {
+        // Arrange
+        List<ETLJobDailyRollup> rollups = List.of(ETLJobDailyRollup.builder()
+                .rollupDate(LocalDate.now())
+                .jobName("syncCustomers")
+                .completedCount(2)
+                .build());
+        when(etlJobHistoryService.getDailyRollups(LocalDate.now().minusDays(6))).thenReturn(rollups);
+
+        // Act
+        ResponseEntity<List<ETLJobDailyRollup>> response = jobHistoryController.getDailyRollups(7);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(rollups, response.getBody());
+    }
+
+    private static void assertCsvUtf8(MockHttpServletResponse response) {
+        assertTrue(response.getContentType().startsWith("text/csv"));
+        assertEquals("UTF-8", response.getCharacterEncoding());
     }
 }
@@ -1,6 +1,7 @@
 package com.lunar.stripelunar.controller;
 
 import com.lunar.stripelunar.service.StripeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -13,7 +14,7 @@ public class TestStripeWebhookController extends StripeWebhookController {
     private final StripeService stripeService;
     
     public TestStripeWebhookController(StripeService stripeService) {
-        super(stripeService);
+        super(stripeService, new SimpleMeterRegistry());
         this.stripeService = stripeService;
     }
     
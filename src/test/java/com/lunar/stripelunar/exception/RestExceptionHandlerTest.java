@@ -71,6 +71,21 @@ public class RestExceptionHandlerTest {
         assertNotNull(error.getTimestamp());
     }
 
+    @Test
+    void handleIllegalArgument_ShouldReturnBadRequest() {
+        // Arrange
+        IllegalArgumentException ex = new IllegalArgumentException("Invalid job history cursor: abc");
+
+        // Act
+        ResponseEntity<Object> response = restExceptionHandler.handleIllegalArgument(ex);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        ApiError error = (ApiError) response.getBody();
+        assertNotNull(error);
+        assertEquals("Invalid job history cursor: abc", error.getMessage());
+    }
+
     @Test
     void handleResourceNotFound_ShouldReturnNotFound() {
         // Arrange
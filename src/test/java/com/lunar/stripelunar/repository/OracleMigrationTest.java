@@ -0,0 +1,94 @@
+package com.lunar.stripelunar.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.OracleContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies every migration to Oracle XE and checks what V6 to V8 leave behind: the interval
+ * partitioned ETL_JOB_HISTORY, the sequence-backed JOB_ID and the local keyset indexes.
+ * Excluded from the default build; run with -Poracle-it where Docker is available.
+ */
+@Tag("oracle")
+@Testcontainers(disabledWithoutDocker = true)
+public class OracleMigrationTest {
+
+    @Container
+    private static final OracleContainer oracle = new OracleContainer("gvenzl/oracle-xe:21-slim-faststart");
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(oracle.getJdbcUrl(), oracle.getUsername(), oracle.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void migrate_ShouldPartitionJobHistoryByMonth() throws SQLException {
+        // Act
+        String partitioning = queryString(
+                "SELECT PARTITIONING_TYPE || ':' || NVL2(INTERVAL, 'INTERVAL', 'NONE') FROM USER_PART_TABLES " +
+                "WHERE TABLE_NAME = 'ETL_JOB_HISTORY'");
+
+        // Assert
+        assertEquals("RANGE:INTERVAL", partitioning);
+    }
+
+    @Test
+    void migrate_ShouldMakeKeysetIndexesLocal() throws SQLException {
+        // Act & Assert
+        assertEquals("LOCAL", queryString(
+                "SELECT LOCALITY FROM USER_PART_INDEXES WHERE INDEX_NAME = 'IDX_JOB_NAME_START_TIME'"));
+        assertEquals("LOCAL", queryString(
+                "SELECT LOCALITY FROM USER_PART_INDEXES WHERE INDEX_NAME = 'IDX_JOB_START_TIME'"));
+    }
+
+    @Test
+    void insert_WhenJobIdFromSequenceAndStartInNewMonth_ShouldCreatePartition() throws SQLException {
+        // Arrange
+        long partitionsBefore = queryLong("SELECT COUNT(*) FROM USER_TAB_PARTITIONS WHERE TABLE_NAME = 'ETL_JOB_HISTORY'");
+
+        // Act
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO ETL_JOB_HISTORY (JOB_ID, JOB_NAME, START_TIME, STATUS) " +
+                    "VALUES (SEQ_ETL_JOB_ID.NEXTVAL, 'syncCustomers', TIMESTAMP '2030-06-15 10:00:00', 'COMPLETED')");
+        }
+
+        // Assert
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM USER_TAB_IDENTITY_COLS WHERE TABLE_NAME = 'ETL_JOB_HISTORY'"));
+        assertTrue(queryLong("SELECT COUNT(*) FROM USER_TAB_PARTITIONS WHERE TABLE_NAME = 'ETL_JOB_HISTORY'")
+                > partitionsBefore);
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(oracle.getJdbcUrl(), oracle.getUsername(), oracle.getPassword());
+    }
+
+    private static String queryString(String sql) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            assertTrue(rs.next(), "No row for: " + sql);
+            return rs.getString(1);
+        }
+    }
+
+    private static long queryLong(String sql) throws SQLException {
+        return Long.parseLong(queryString(sql));
+    }
+}
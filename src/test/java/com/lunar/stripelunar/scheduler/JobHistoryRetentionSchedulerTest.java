@@ -0,0 +1,115 @@
+package com.lunar.stripelunar.scheduler;
+
+import com.lunar.stripelunar.repository.ETLJobHistoryPartitionRepository;
+import com.lunar.stripelunar.service.ETLJobHistoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobHistoryRetentionSchedulerTest {
+
+    private static final LocalDate CURRENT_MONTH = LocalDate.of(2026, 10, 1);
+
+    @Mock
+    private ETLJobHistoryPartitionRepository partitionRepository;
+
+    @Mock
+    private ETLJobHistoryService etlJobHistoryService;
+
+    @InjectMocks
+    private JobHistoryRetentionScheduler retentionScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionScheduler, "retentionMonths", 12);
+        ReflectionTestUtils.setField(retentionScheduler, "compressAfterMonths", 3);
+        ReflectionTestUtils.setField(retentionScheduler, "archiveDir", "");
+    }
+
+    @Test
+    void applyRetention_ShouldDropExpiredMonthsAndCompressAgedOnes() {
+        // Arrange
+        LocalDate retainFrom = LocalDate.of(2025, 10, 1);
+        when(partitionRepository.findMonthsWithJobsBefore(retainFrom)).thenReturn(List.of(
+                LocalDate.of(2023, 5, 1), LocalDate.of(2023, 6, 1), LocalDate.of(2025, 9, 1)));
+        when(partitionRepository.findMonthsWithJobsBefore(LocalDate.of(2026, 7, 1))).thenReturn(List.of(
+                LocalDate.of(2025, 10, 1), LocalDate.of(2026, 6, 1)));
+        when(partitionRepository.isCompressed(LocalDate.of(2025, 10, 1))).thenReturn(true);
+        when(partitionRepository.isCompressed(LocalDate.of(2026, 6, 1))).thenReturn(false);
+
+        // Act
+        retentionScheduler.applyRetention(CURRENT_MONTH);
+
+        // Assert
+        verify(partitionRepository, times(1)).truncateInitialPartition();
+        verify(partitionRepository).dropPartition(LocalDate.of(2025, 9, 1));
+        verify(partitionRepository).compressPartition(LocalDate.of(2026, 6, 1));
+        verify(partitionRepository, never()).compressPartition(LocalDate.of(2025, 10, 1));
+        verifyNoInteractions(etlJobHistoryService);
+    }
+
+    @Test
+    void applyRetention_WithArchiveDir_ShouldArchiveMonthBeforeDroppingIt(@TempDir Path archiveDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(retentionScheduler, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(retentionScheduler, "compressAfterMonths", 0);
+        LocalDate month = LocalDate.of(2025, 9, 1);
+        when(partitionRepository.findMonthsWithJobsBefore(LocalDate.of(2025, 10, 1))).thenReturn(List.of(month));
+        when(etlJobHistoryService.exportJobHistory(isNull(), eq(month.atStartOfDay()),
+                eq(month.plusMonths(1).atStartOfDay()), any(Writer.class))).thenReturn(42L);
+
+        // Act
+        retentionScheduler.applyRetention(CURRENT_MONTH);
+
+        // Assert
+        assertTrue(Files.exists(archiveDir.resolve("etl-job-history-2025-09.csv.gz")));
+        verify(partitionRepository).dropPartition(month);
+        verify(partitionRepository, never()).isCompressed(any());
+    }
+
+    @Test
+    void applyRetention_WhenArchiveFails_ShouldKeepPartition(@TempDir Path archiveDir) throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(retentionScheduler, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(retentionScheduler, "compressAfterMonths", 0);
+        LocalDate month = LocalDate.of(2025, 9, 1);
+        when(partitionRepository.findMonthsWithJobsBefore(LocalDate.of(2025, 10, 1))).thenReturn(List.of(month));
+        when(etlJobHistoryService.exportJobHistory(any(), any(), any(), any(Writer.class)))
+                .thenThrow(new IOException("Disk full"));
+
+        // Act
+        retentionScheduler.applyRetention(CURRENT_MONTH);
+
+        // Assert
+        verify(partitionRepository, never()).dropPartition(any());
+        assertFalse(Files.exists(archiveDir.resolve("etl-job-history-2025-09.csv.gz")));
+    }
+
+    @Test
+    void applyRetention_WhenDisabled_ShouldNotTouchPartitions() {
+        // Arrange
+        ReflectionTestUtils.setField(retentionScheduler, "retentionEnabled", false);
+
+        // Act
+        retentionScheduler.applyRetention();
+
+        // Assert
+        verifyNoInteractions(partitionRepository);
+    }
+}
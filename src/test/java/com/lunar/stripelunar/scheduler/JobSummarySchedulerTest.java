@@ -0,0 +1,95 @@
+package com.lunar.stripelunar.scheduler;
+
+import com.lunar.stripelunar.model.JobSummaryTotals;
+import com.lunar.stripelunar.notification.NotificationService;
+import com.lunar.stripelunar.repository.ETLJobDailyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobSummarySchedulerTest {
+
+    @Mock
+    private ETLJobDailyRollupRepository etlJobDailyRollupRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private JobSummaryScheduler jobSummaryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jobSummaryScheduler, "jobSummaryEnabled", true);
+    }
+
+    @Test
+    void generateWeeklyJobSummary_ShouldNotifyTotalsOfEachJobName() {
+        // Arrange
+        when(etlJobDailyRollupRepository.sumByJobNameBetween(LocalDate.now().minusDays(7), LocalDate.now())).thenReturn(List.of(
+                new JobSummaryTotals("syncCustomers", 3L, 1L, 200L),
+                new JobSummaryTotals("syncInvoices", 5L, 0L, 10L),
+                new JobSummaryTotals("syncPayments", 0L, 1L, 0L)));
+
+        // Act
+        jobSummaryScheduler.generateWeeklyJobSummary();
+
+        // Assert
+        verify(notificationService).sendJobSummaryNotification("Weekly Customer Sync", 3, 1, 200);
+        verify(notificationService).sendJobSummaryNotification("Weekly syncInvoices", 5, 0, 10);
+        verify(notificationService).sendJobSummaryNotification("Weekly Payment Sync", 0, 1, 0);
+        verifyNoMoreInteractions(notificationService);
+        verify(etlJobDailyRollupRepository, never()).findFromDate(any());
+    }
+
+    @Test
+    void generateMonthlyJobSummary_ShouldSkipJobNamesWithoutFinishedJobs() {
+        // Arrange
+        when(etlJobDailyRollupRepository.sumByJobNameBetween(LocalDate.now().minusDays(30), LocalDate.now())).thenReturn(List.of(
+                new JobSummaryTotals("syncAll", 0L, 0L, 0L)));
+
+        // Act
+        jobSummaryScheduler.generateMonthlyJobSummary();
+
+        // Assert
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void generateDailyJobSummary_ShouldSumYesterdayOnly() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        when(etlJobDailyRollupRepository.sumByJobNameBetween(today.minusDays(1), today)).thenReturn(List.of(
+                new JobSummaryTotals("syncPayments", 2L, 0L, 50L)));
+
+        // Act
+        jobSummaryScheduler.generateDailyJobSummary();
+
+        // Assert
+        verify(notificationService).sendJobSummaryNotification("Daily Payment Sync", 2, 0, 50);
+    }
+
+    @Test
+    void generateDailyJobSummary_WhenDisabled_ShouldNotReadRollups() {
+        // Arrange
+        ReflectionTestUtils.setField(jobSummaryScheduler, "jobSummaryEnabled", false);
+
+        // Act
+        jobSummaryScheduler.generateDailyJobSummary();
+
+        // Assert
+        verifyNoInteractions(etlJobDailyRollupRepository);
+        verify(notificationService, never()).sendJobSummaryNotification(anyString(), anyInt(), anyInt(), anyInt());
+    }
+}
@@ -1,20 +1,28 @@
 package com.lunar.stripelunar.service;
 
-import com.lunar.stripelunar.exception.ResourceNotFoundException;
 import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.JobHistoryCursor;
+import com.lunar.stripelunar.model.JobHistoryPage;
+import com.lunar.stripelunar.model.JobStatusCount;
 import com.lunar.stripelunar.notification.NotificationService;
+import com.lunar.stripelunar.repository.ETLJobDailyRollupRepository;
+import com.lunar.stripelunar.repository.ETLJobHistoryBatchRepository;
 import com.lunar.stripelunar.repository.ETLJobHistoryRepository;
+import com.lunar.stripelunar.util.TestCsvExportUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,12 +36,15 @@ public class ETLJobHistoryServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private ETLJobDailyRollupRepository etlJobDailyRollupRepository;
+
+    @Mock
+    private ETLJobHistoryBatchRepository etlJobHistoryBatchRepository;
+
     @InjectMocks
     private ETLJobHistoryServiceImpl etlJobHistoryService;
 
-    @Captor
-    private ArgumentCaptor<ETLJobHistory> jobHistoryCaptor;
-
     private ETLJobHistory mockRunningJob;
     private ETLJobHistory mockCompletedJob;
     private ETLJobHistory mockFailedJob;
@@ -74,208 +85,217 @@ public class ETLJobHistoryServiceTest {
     }
 
     @Test
-    void startJob_ShouldCreateNewJobWithRunningStatus() {
+    void getLastJobExecution_ShouldReturnLastJob() {
         // Arrange
         String jobName = "syncCustomers";
-        when(etlJobHistoryRepository.save(any(ETLJobHistory.class))).thenReturn(mockRunningJob);
+        when(etlJobHistoryRepository.findTopByJobNameOrderByStartTimeDesc(jobName))
+                .thenReturn(Optional.of(mockRunningJob));
 
         // Act
-        ETLJobHistory result = etlJobHistoryService.startJob(jobName);
+        Optional<ETLJobHistory> result = etlJobHistoryService.getLastJobExecution(jobName);
 
         // Assert
-        assertEquals(1L, result.getId());
-        assertEquals(jobName, result.getJobName());
-        assertEquals(ETLJobHistory.STATUS_RUNNING, result.getStatus());
-        assertNotNull(result.getStartTime());
+        assertTrue(result.isPresent());
+        assertEquals(mockRunningJob, result.get());
         
-        verify(etlJobHistoryRepository).save(jobHistoryCaptor.capture());
-        ETLJobHistory capturedJob = jobHistoryCaptor.getValue();
-        assertEquals(jobName, capturedJob.getJobName());
-        assertEquals(ETLJobHistory.STATUS_RUNNING, capturedJob.getStatus());
-        assertNotNull(capturedJob.getStartTime());
+        verify(etlJobHistoryRepository).findTopByJobNameOrderByStartTimeDesc(jobName);
     }
 
     @Test
-    void completeJob_WhenJobExists_ShouldUpdateJobToCompleted() {
+    void getJobExecutions_WithMoreRowsThanLimit_ShouldReturnPageAndNextCursor() {
         // Arrange
-        Long jobId = 1L;
-        Integer recordsProcessed = 100;
-        
-        when(etlJobHistoryRepository.findById(jobId)).thenReturn(Optional.of(mockRunningJob));
-        when(etlJobHistoryRepository.save(any(ETLJobHistory.class))).thenReturn(mockCompletedJob);
+        ETLJobHistory older = ETLJobHistory.builder().id(1L).jobName("syncPayments")
+                .startTime(mockCompletedJob.getStartTime().minusDays(1)).status(ETLJobHistory.STATUS_COMPLETED).build();
+        when(etlJobHistoryRepository.findPageByJobName("syncPayments", PageRequest.of(0, 2)))
+                .thenReturn(List.of(mockCompletedJob, older));
 
         // Act
-        ETLJobHistory result = etlJobHistoryService.completeJob(jobId, recordsProcessed);
+        JobHistoryPage page = etlJobHistoryService.getJobExecutions("syncPayments", 1, null);
 
         // Assert
-        assertEquals(ETLJobHistory.STATUS_COMPLETED, result.getStatus());
-        assertEquals(recordsProcessed, result.getRecordsProcessed());
-        assertNotNull(result.getEndTime());
-        
-        verify(etlJobHistoryRepository).findById(jobId);
-        verify(etlJobHistoryRepository).save(jobHistoryCaptor.capture());
-        verify(notificationService).sendJobCompletionNotification(any(ETLJobHistory.class));
-        
-        ETLJobHistory capturedJob = jobHistoryCaptor.getValue();
-        assertEquals(ETLJobHistory.STATUS_COMPLETED, capturedJob.getStatus());
-        assertEquals(recordsProcessed, capturedJob.getRecordsProcessed());
-        assertNotNull(capturedJob.getEndTime());
+        assertEquals(List.of(mockCompletedJob), page.jobs());
+        assertEquals(1, page.limit());
+        assertEquals(new JobHistoryCursor(mockCompletedJob.getStartTime(), 2L), JobHistoryCursor.decode(page.nextCursor()));
     }
 
     @Test
-    void completeJob_WhenJobDoesNotExist_ShouldThrowException() {
+    void getJobExecutions_WithCursor_ShouldSeekPastItAndEndWithoutCursor() {
         // Arrange
-        Long jobId = 999L;
-        Integer recordsProcessed = 100;
-        
-        when(etlJobHistoryRepository.findById(jobId)).thenReturn(Optional.empty());
+        JobHistoryCursor before = new JobHistoryCursor(LocalDateTime.now(), 5L);
+        when(etlJobHistoryRepository.findPageByJobNameBefore("syncPayments", before.startTime(), 5L, PageRequest.of(0, 101)))
+                .thenReturn(List.of(mockCompletedJob));
 
-        // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> etlJobHistoryService.completeJob(jobId, recordsProcessed));
-        
-        verify(etlJobHistoryRepository).findById(jobId);
-        verify(etlJobHistoryRepository, never()).save(any(ETLJobHistory.class));
-        verify(notificationService, never()).sendJobCompletionNotification(any(ETLJobHistory.class));
+        // Act
+        JobHistoryPage page = etlJobHistoryService.getJobExecutions("syncPayments", 0, before);
+
+        // Assert
+        assertEquals(1, page.jobs().size());
+        assertEquals(100, page.limit());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getJobsAfterDate_WithLimitAboveMax_ShouldCapPageSize() {
+        // Arrange
+        when(etlJobHistoryRepository.findPageAfterDate(testStartDate, PageRequest.of(0, 1001)))
+                .thenReturn(List.of(mockRunningJob, mockCompletedJob, mockFailedJob));
+
+        // Act
+        JobHistoryPage page = etlJobHistoryService.getJobsAfterDate(testStartDate, 50_000, null);
+
+        // Assert
+        assertEquals(1000, page.limit());
+        assertEquals(3, page.jobs().size());
+        assertNull(page.nextCursor());
     }
 
     @Test
-    void failJob_WhenJobExists_ShouldUpdateJobToFailed() {
+    void getJobStatistics_ShouldReturnStatistics() {
         // Arrange
-        Long jobId = 1L;
-        String errorMessage = "Connection timeout";
+        when(etlJobHistoryRepository.countGroupedByJobNameAndStatus()).thenReturn(List.of(
+                new JobStatusCount("syncCustomers", ETLJobHistory.STATUS_COMPLETED, 3L),
+                new JobStatusCount("syncPayments", ETLJobHistory.STATUS_COMPLETED, 2L),
+                new JobStatusCount("syncAll", ETLJobHistory.STATUS_COMPLETED, 1L),
+                new JobStatusCount("syncCustomers", ETLJobHistory.STATUS_FAILED, 1L),
+                new JobStatusCount("syncPayments", ETLJobHistory.STATUS_FAILED, 1L),
+                new JobStatusCount("syncAll", ETLJobHistory.STATUS_FAILED, 1L),
+                new JobStatusCount("syncAll", ETLJobHistory.STATUS_RUNNING, 1L)));
         
-        when(etlJobHistoryRepository.findById(jobId)).thenReturn(Optional.of(mockRunningJob));
-        when(etlJobHistoryRepository.save(any(ETLJobHistory.class))).thenReturn(mockFailedJob);
+        ETLJobHistory lastCustomerSync = ETLJobHistory.builder().id(4L).jobName("syncCustomers")
+                .startTime(LocalDateTime.now().minusHours(2)).status(ETLJobHistory.STATUS_COMPLETED).build();
+        ETLJobHistory lastFullSync = ETLJobHistory.builder().id(5L).jobName("syncAll")
+                .startTime(LocalDateTime.now().minusMinutes(1)).status(ETLJobHistory.STATUS_FAILED).build();
+        when(etlJobHistoryRepository.findLatestPerJobName())
+                .thenReturn(List.of(lastCustomerSync, mockCompletedJob, lastFullSync));
 
         // Act
-        ETLJobHistory result = etlJobHistoryService.failJob(jobId, errorMessage);
+        Map<String, Object> result = etlJobHistoryService.getJobStatistics();
 
         // Assert
-        assertEquals(ETLJobHistory.STATUS_FAILED, result.getStatus());
-        assertEquals(errorMessage, result.getErrorMessage());
-        assertNotNull(result.getEndTime());
+        assertNotNull(result);
+        assertEquals(10L, result.get("totalJobs"));
+        assertEquals(6L, result.get("completedJobs"));
+        assertEquals(3L, result.get("failedJobs"));
+        assertEquals(1L, result.get("runningJobs"));
         
-        verify(etlJobHistoryRepository).findById(jobId);
-        verify(etlJobHistoryRepository).save(jobHistoryCaptor.capture());
-        verify(notificationService).sendJobFailureNotification(any(ETLJobHistory.class));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Long>> jobsByName = (Map<String, Map<String, Long>>) result.get("jobsByName");
+        assertEquals(3L, jobsByName.get("syncCustomers").get(ETLJobHistory.STATUS_COMPLETED));
+        assertEquals(1L, jobsByName.get("syncAll").get(ETLJobHistory.STATUS_RUNNING));
         
-        ETLJobHistory capturedJob = jobHistoryCaptor.getValue();
-        assertEquals(ETLJobHistory.STATUS_FAILED, capturedJob.getStatus());
-        assertEquals(errorMessage, capturedJob.getErrorMessage());
-        assertNotNull(capturedJob.getEndTime());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lastExecutions = (Map<String, Object>) result.get("lastExecutions");
+        assertNotNull(lastExecutions);
+        assertTrue(lastExecutions.containsKey("syncCustomers"));
+        assertTrue(lastExecutions.containsKey("syncPayments"));
+        assertTrue(lastExecutions.containsKey("syncAll"));
+        
+        verify(etlJobHistoryRepository).countGroupedByJobNameAndStatus();
+        verify(etlJobHistoryRepository).findLatestPerJobName();
+        verify(etlJobHistoryRepository, never()).count();
+        verify(etlJobHistoryRepository, never()).findTopByJobNameOrderByStartTimeDesc(anyString());
     }
 
     @Test
-    void failJob_WhenJobDoesNotExist_ShouldThrowException() {
+    void getJobStatistics_WhenNewJobNameAppears_ShouldIncludeItWithoutCodeChanges() {
         // Arrange
-        Long jobId = 999L;
-        String errorMessage = "Connection timeout";
-        
-        when(etlJobHistoryRepository.findById(jobId)).thenReturn(Optional.empty());
+        when(etlJobHistoryRepository.countGroupedByJobNameAndStatus()).thenReturn(List.of(
+                new JobStatusCount("syncInvoices", ETLJobHistory.STATUS_COMPLETED, 4L)));
+        ETLJobHistory invoiceSync = ETLJobHistory.builder().id(9L).jobName("syncInvoices")
+                .startTime(LocalDateTime.now()).status(ETLJobHistory.STATUS_COMPLETED).build();
+        when(etlJobHistoryRepository.findLatestPerJobName()).thenReturn(List.of(invoiceSync));
 
-        // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> etlJobHistoryService.failJob(jobId, errorMessage));
-        
-        verify(etlJobHistoryRepository).findById(jobId);
-        verify(etlJobHistoryRepository, never()).save(any(ETLJobHistory.class));
-        verify(notificationService, never()).sendJobFailureNotification(any(ETLJobHistory.class));
+        // Act
+        Map<String, Object> result = etlJobHistoryService.getJobStatistics();
+
+        // Assert
+        assertEquals(4L, result.get("completedJobs"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lastExecutions = (Map<String, Object>) result.get("lastExecutions");
+        assertTrue(lastExecutions.containsKey("syncInvoices"));
     }
 
     @Test
-    void getLastJobExecution_ShouldReturnLastJob() {
+    void getJobStatistics_WhenCalledWithinTtl_ShouldServeFromCache() {
         // Arrange
-        String jobName = "syncCustomers";
-        when(etlJobHistoryRepository.findTopByJobNameOrderByStartTimeDesc(jobName))
-                .thenReturn(Optional.of(mockRunningJob));
+        when(etlJobHistoryRepository.countGroupedByJobNameAndStatus()).thenReturn(List.of());
+        when(etlJobHistoryRepository.findLatestPerJobName()).thenReturn(List.of());
 
         // Act
-        Optional<ETLJobHistory> result = etlJobHistoryService.getLastJobExecution(jobName);
+        Map<String, Object> first = etlJobHistoryService.getJobStatistics();
+        Map<String, Object> second = etlJobHistoryService.getJobStatistics();
 
         // Assert
-        assertTrue(result.isPresent());
-        assertEquals(mockRunningJob, result.get());
-        
-        verify(etlJobHistoryRepository).findTopByJobNameOrderByStartTimeDesc(jobName);
+        assertSame(first, second);
+        verify(etlJobHistoryRepository, times(1)).countGroupedByJobNameAndStatus();
+        verify(etlJobHistoryRepository, times(1)).findLatestPerJobName();
     }
 
     @Test
-    void getJobExecutions_ShouldReturnAllJobsForName() {
+    void exportJobHistory_ShouldStreamMatchingRowsIntoCsv() throws Exception {
         // Arrange
-        String jobName = "syncCustomers";
-        List<ETLJobHistory> expectedJobs = Collections.singletonList(mockRunningJob);
-        when(etlJobHistoryRepository.findByJobNameOrderByStartTimeDesc(jobName))
-                .thenReturn(expectedJobs);
+        TestCsvExportUtil csvExportUtil = new TestCsvExportUtil();
+        ReflectionTestUtils.setField(etlJobHistoryService, "csvExportUtil", csvExportUtil);
+        LocalDateTime to = LocalDateTime.now();
+        when(etlJobHistoryRepository.streamForExport("syncPayments", testStartDate, to, 500))
+                .thenReturn(Stream.of(mockCompletedJob));
+        StringWriter writer = new StringWriter();
 
         // Act
-        List<ETLJobHistory> result = etlJobHistoryService.getJobExecutions(jobName);
+        long rows = etlJobHistoryService.exportJobHistory("syncPayments", testStartDate, to, writer);
 
         // Assert
-        assertEquals(expectedJobs.size(), result.size());
-        assertEquals(expectedJobs.get(0), result.get(0));
-        
-        verify(etlJobHistoryRepository).findByJobNameOrderByStartTimeDesc(jobName);
+        assertEquals(1, rows);
+        assertEquals(List.of(mockCompletedJob), csvExportUtil.getLastExportedJobs());
+        assertTrue(writer.toString().contains("2,syncPayments,COMPLETED"));
     }
 
     @Test
-    void getJobsAfterDate_ShouldReturnJobsAfterDate() {
+    void recordJobs_ShouldBatchWritesAndRollUpFinishedJobs() {
         // Arrange
-        List<ETLJobHistory> expectedJobs = Arrays.asList(mockRunningJob, mockCompletedJob, mockFailedJob);
-        when(etlJobHistoryRepository.findJobsAfterDate(testStartDate))
-                .thenReturn(expectedJobs);
+        List<ETLJobHistory> newJobs = List.of(mockRunningJob, mockCompletedJob);
+        List<ETLJobHistory> updatedJobs = List.of(mockFailedJob);
 
         // Act
-        List<ETLJobHistory> result = etlJobHistoryService.getJobsAfterDate(testStartDate);
+        etlJobHistoryService.recordJobs(newJobs, updatedJobs);
 
         // Assert
-        assertEquals(expectedJobs.size(), result.size());
-        
-        verify(etlJobHistoryRepository).findJobsAfterDate(testStartDate);
+        verify(etlJobHistoryBatchRepository).insertAll(newJobs);
+        verify(etlJobHistoryBatchRepository).updateAll(updatedJobs);
+        verify(etlJobDailyRollupRepository).addJob(
+                mockCompletedJob.getStartTime().toLocalDate(), "syncPayments", 1, 0, 100L, 300_000L);
+        verify(etlJobDailyRollupRepository).addJob(
+                mockFailedJob.getStartTime().toLocalDate(), "syncAll", 0, 1, 0L, 120_000L);
+        verify(etlJobDailyRollupRepository, times(2)).addJob(any(), any(), anyInt(), anyInt(), anyLong(), anyLong());
+        verify(etlJobHistoryRepository, never()).save(any());
+        verifyNoInteractions(notificationService);
     }
 
     @Test
-    void getJobStatistics_ShouldReturnStatistics() {
+    void recordJobs_WhenUpdateMatchesNoRow_ShouldInsertFinalStateBeforeRollingUp() {
         // Arrange
-        when(etlJobHistoryRepository.count()).thenReturn(10L);
-        
-        // Mock counts by job name and status
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_COMPLETED)).thenReturn(3L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_COMPLETED)).thenReturn(2L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_COMPLETED)).thenReturn(1L);
-        
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_FAILED)).thenReturn(1L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_FAILED)).thenReturn(1L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_FAILED)).thenReturn(1L);
-        
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncCustomers", ETLJobHistory.STATUS_RUNNING)).thenReturn(0L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncPayments", ETLJobHistory.STATUS_RUNNING)).thenReturn(0L);
-        when(etlJobHistoryRepository.countByJobNameAndStatus("syncAll", ETLJobHistory.STATUS_RUNNING)).thenReturn(1L);
-        
-        // Mock last executions
-        when(etlJobHistoryRepository.findTopByJobNameOrderByStartTimeDesc("syncCustomers"))
-                .thenReturn(Optional.of(mockCompletedJob));
-        when(etlJobHistoryRepository.findTopByJobNameOrderByStartTimeDesc("syncPayments"))
-                .thenReturn(Optional.of(mockCompletedJob));
-        when(etlJobHistoryRepository.findTopByJobNameOrderByStartTimeDesc("syncAll"))
-                .thenReturn(Optional.of(mockFailedJob));
+        List<ETLJobHistory> updatedJobs = List.of(mockFailedJob);
+        when(etlJobHistoryBatchRepository.updateAll(updatedJobs)).thenReturn(List.of(mockFailedJob));
 
         // Act
-        Map<String, Object> result = etlJobHistoryService.getJobStatistics();
+        etlJobHistoryService.recordJobs(List.of(), updatedJobs);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(10L, result.get("totalJobs"));
-        assertEquals(6L, result.get("completedJobs"));
-        assertEquals(3L, result.get("failedJobs"));
-        assertEquals(1L, result.get("runningJobs"));
-        
-        @SuppressWarnings("unchecked")
-        Map<String, Object> lastExecutions = (Map<String, Object>) result.get("lastExecutions");
-        assertNotNull(lastExecutions);
-        assertTrue(lastExecutions.containsKey("syncCustomers"));
-        assertTrue(lastExecutions.containsKey("syncPayments"));
-        assertTrue(lastExecutions.containsKey("syncAll"));
-        
-        verify(etlJobHistoryRepository).count();
-        verify(etlJobHistoryRepository, times(3)).findTopByJobNameOrderByStartTimeDesc(anyString());
+        InOrder inOrder = inOrder(etlJobHistoryBatchRepository, etlJobDailyRollupRepository);
+        inOrder.verify(etlJobHistoryBatchRepository).updateAll(updatedJobs);
+        inOrder.verify(etlJobHistoryBatchRepository).insertAll(List.of(mockFailedJob));
+        inOrder.verify(etlJobDailyRollupRepository).addJob(
+                mockFailedJob.getStartTime().toLocalDate(), "syncAll", 0, 1, 0L, 120_000L);
+    }
+
+    @Test
+    void notifyFinished_ShouldNotifyFinishedJobsOnly() {
+        // Act
+        etlJobHistoryService.notifyFinished(List.of(mockRunningJob, mockCompletedJob, mockFailedJob));
+
+        // Assert
+        verify(notificationService).sendJobCompletionNotification(mockCompletedJob);
+        verify(notificationService).sendJobFailureNotification(mockFailedJob);
+        verifyNoMoreInteractions(notificationService);
     }
 }
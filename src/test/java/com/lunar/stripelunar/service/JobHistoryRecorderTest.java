@@ -0,0 +1,228 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.ETLJobHistory;
+import com.lunar.stripelunar.model.SyncStageTimings;
+import com.lunar.stripelunar.repository.ETLJobHistoryBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobHistoryRecorderTest {
+
+    @Mock
+    private ETLJobHistoryService etlJobHistoryService;
+
+    @Mock
+    private ETLJobHistoryBatchRepository etlJobHistoryBatchRepository;
+
+    @InjectMocks
+    private JobHistoryRecorder recorder;
+
+    @Captor
+    private ArgumentCaptor<List<ETLJobHistory>> insertsCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<ETLJobHistory>> updatesCaptor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recorder, "idBlockSize", 2);
+        ReflectionTestUtils.setField(recorder, "batchSize", 100);
+    }
+
+    @Test
+    void startJob_ShouldAllocateIdsInBlocksWithoutWritingRows() {
+        // Arrange
+        when(etlJobHistoryBatchRepository.nextJobIds(2)).thenReturn(List.of(10L, 11L), List.of(12L, 13L));
+
+        // Act
+        ETLJobHistory first = recorder.startJob("syncCustomers");
+        ETLJobHistory second = recorder.startJob("syncPayments");
+        ETLJobHistory third = recorder.startJob("syncAll");
+
+        // Assert
+        assertEquals(10L, first.getId());
+        assertEquals(11L, second.getId());
+        assertEquals(12L, third.getId());
+        assertEquals(ETLJobHistory.STATUS_RUNNING, first.getStatus());
+        verify(etlJobHistoryBatchRepository, times(2)).nextJobIds(2);
+        verifyNoInteractions(etlJobHistoryService);
+        assertEquals(3, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_WhenJobFinishedBeforeFlush_ShouldInsertFinalStateOnce() {
+        // Arrange
+        when(etlJobHistoryBatchRepository.nextJobIds(2)).thenReturn(List.of(10L, 11L));
+        ETLJobHistory job = recorder.startJob("syncPayments");
+        SyncStageTimings timings = new SyncStageTimings(100L, 20L, 300L, 5L, 2, 4096L, 1);
+        recorder.completeJob(job, 150, timings);
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService).recordJobs(insertsCaptor.capture(), updatesCaptor.capture());
+        assertEquals(1, insertsCaptor.getValue().size());
+        ETLJobHistory inserted = insertsCaptor.getValue().get(0);
+        assertEquals(10L, inserted.getId());
+        assertEquals(ETLJobHistory.STATUS_COMPLETED, inserted.getStatus());
+        assertEquals(150, inserted.getRecordsProcessed());
+        assertEquals(300L, inserted.getDbWriteMillis());
+        assertTrue(updatesCaptor.getValue().isEmpty());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_WhenJobFinishedAfterInsert_ShouldUpdateRow() {
+        // Arrange
+        when(etlJobHistoryBatchRepository.nextJobIds(2)).thenReturn(List.of(10L, 11L));
+        ETLJobHistory job = recorder.startJob("syncAll");
+        recorder.flush();
+        recorder.failJob(job, "Connection timeout", null);
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService, times(2)).recordJobs(insertsCaptor.capture(), updatesCaptor.capture());
+        assertEquals(ETLJobHistory.STATUS_RUNNING, insertsCaptor.getAllValues().get(0).get(0).getStatus());
+        assertTrue(insertsCaptor.getAllValues().get(1).isEmpty());
+        ETLJobHistory updated = updatesCaptor.getAllValues().get(1).get(0);
+        assertEquals(ETLJobHistory.STATUS_FAILED, updated.getStatus());
+        assertEquals("Connection timeout", updated.getErrorMessage());
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepJobsForNextFlush() {
+        // Arrange
+        when(etlJobHistoryBatchRepository.nextJobIds(2)).thenReturn(List.of(10L, 11L));
+        ETLJobHistory job = recorder.startJob("syncCustomers");
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .doNothing()
+                .when(etlJobHistoryService).recordJobs(anyList(), anyList());
+
+        // Act
+        recorder.flush();
+        recorder.completeJob(job, 5, null);
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService, times(2)).recordJobs(insertsCaptor.capture(), updatesCaptor.capture());
+        List<ETLJobHistory> retried = insertsCaptor.getAllValues().get(1);
+        assertEquals(1, retried.size());
+        assertEquals(ETLJobHistory.STATUS_COMPLETED, retried.get(0).getStatus());
+        assertTrue(updatesCaptor.getAllValues().get(1).isEmpty());
+        assertEquals(0, recorder.pendingCount());
+        verify(etlJobHistoryService, times(1)).notifyFinished(anyList());
+    }
+
+    @Test
+    void flush_WhenErrorMessageIsOversized_ShouldTruncateItAndWriteFullBatch() {
+        // Arrange
+        ReflectionTestUtils.setField(recorder, "idBlockSize", 3);
+        ReflectionTestUtils.setField(recorder, "batchSize", 3);
+        when(etlJobHistoryBatchRepository.nextJobIds(3)).thenReturn(List.of(10L, 11L, 12L));
+        recorder.startJob("syncCustomers");
+        ETLJobHistory failed = recorder.startJob("syncPayments");
+        recorder.startJob("syncAll");
+        recorder.failJob(failed, "é".repeat(5000), null);
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService).recordJobs(insertsCaptor.capture(), updatesCaptor.capture());
+        List<ETLJobHistory> inserted = insertsCaptor.getValue();
+        assertEquals(3, inserted.size());
+        String written = inserted.get(1).getErrorMessage();
+        assertEquals(ETLJobHistory.ERROR_MESSAGE_MAX_BYTES, written.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(ETLJobHistory.ERROR_MESSAGE_MAX_BYTES / 2, written.length());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_WhenOneRowIsRejected_ShouldWriteOtherRowsAndDropIt() {
+        // Arrange
+        ReflectionTestUtils.setField(recorder, "idBlockSize", 3);
+        ReflectionTestUtils.setField(recorder, "batchSize", 3);
+        when(etlJobHistoryBatchRepository.nextJobIds(3)).thenReturn(List.of(10L, 11L, 12L));
+        ETLJobHistory first = recorder.startJob("syncCustomers");
+        recorder.startJob("syncPayments");
+        ETLJobHistory third = recorder.startJob("syncAll");
+        recorder.completeJob(first, 5, null);
+        recorder.completeJob(third, 7, null);
+        doAnswer(invocation -> {
+            List<ETLJobHistory> inserts = invocation.getArgument(0);
+            if (inserts.stream().anyMatch(job -> job.getId() == 11L)) {
+                throw new DataIntegrityViolationException("ORA-12899: value too large for column");
+            }
+            return null;
+        }).when(etlJobHistoryService).recordJobs(anyList(), anyList());
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService, times(4)).recordJobs(insertsCaptor.capture(), updatesCaptor.capture());
+        assertEquals(3, insertsCaptor.getAllValues().get(0).size());
+        assertEquals(List.of(10L, 11L, 12L), insertsCaptor.getAllValues().subList(1, 4).stream()
+                .map(inserts -> inserts.get(0).getId())
+                .toList());
+        verify(etlJobHistoryService, times(2)).notifyFinished(anyList());
+        assertEquals(1, recorder.droppedCount());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_WhenDatabaseGoesDownDuringRowRetries_ShouldRequeueUnwrittenRows() {
+        // Arrange
+        ReflectionTestUtils.setField(recorder, "idBlockSize", 3);
+        ReflectionTestUtils.setField(recorder, "batchSize", 3);
+        when(etlJobHistoryBatchRepository.nextJobIds(3)).thenReturn(List.of(10L, 11L, 12L));
+        recorder.startJob("syncCustomers");
+        recorder.startJob("syncPayments");
+        recorder.startJob("syncAll");
+        doThrow(new DataIntegrityViolationException("Bad row"))
+                .doNothing()
+                .doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(etlJobHistoryService).recordJobs(anyList(), anyList());
+
+        // Act
+        recorder.flush();
+
+        // Assert
+        verify(etlJobHistoryService, times(3)).recordJobs(anyList(), anyList());
+        assertEquals(2, recorder.pendingCount());
+        assertEquals(0, recorder.droppedCount());
+    }
+
+    @Test
+    void shutdown_ShouldFlushPendingJobs() throws InterruptedException {
+        // Arrange
+        when(etlJobHistoryBatchRepository.nextJobIds(2)).thenReturn(List.of(10L, 11L));
+        recorder.startJob("syncCustomers");
+
+        // Act
+        recorder.shutdown();
+
+        // Assert
+        verify(etlJobHistoryService).recordJobs(anyList(), anyList());
+        assertEquals(0, recorder.pendingCount());
+    }
+}
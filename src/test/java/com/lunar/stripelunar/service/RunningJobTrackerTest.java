@@ -0,0 +1,63 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.RunningJobProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RunningJobTrackerTest {
+
+    private RunningJobTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new RunningJobTracker();
+    }
+
+    @Test
+    void getRunningJobs_WithJobsInFlight_ShouldReportProgressOldestFirst() {
+        // Arrange
+        SyncJobContext payments = SyncJobContext.open();
+        payments.close();
+        payments.beginResource("charges", 10);
+        payments.recordPage(true);
+        payments.recordBatchWrite(1_000_000, 100);
+        SyncJobContext customers = SyncJobContext.open();
+        customers.close();
+        tracker.jobStarted(2L, "syncPayments", LocalDateTime.now(), payments);
+        tracker.jobStarted(1L, "syncCustomers", LocalDateTime.now(), customers);
+
+        // Act
+        List<RunningJobProgress> running = tracker.getRunningJobs();
+
+        // Assert
+        assertEquals(2, running.size());
+        assertEquals("syncCustomers", running.get(0).jobName());
+        assertEquals("STARTING", running.get(0).stage());
+        assertNull(running.get(0).etaSeconds());
+        RunningJobProgress progress = running.get(1);
+        assertEquals("charges", progress.resource());
+        assertEquals(1, progress.pagesFetched());
+        assertEquals(100, progress.recordsWritten());
+        assertTrue(progress.hasMore());
+        assertNotNull(progress.etaSeconds());
+    }
+
+    @Test
+    void jobFinished_ShouldRemoveJob() {
+        // Arrange
+        SyncJobContext context = SyncJobContext.open();
+        context.close();
+        tracker.jobStarted(1L, "syncAll", LocalDateTime.now(), context);
+
+        // Act
+        tracker.jobFinished(1L);
+
+        // Assert
+        assertTrue(tracker.getRunningJobs().isEmpty());
+    }
+}
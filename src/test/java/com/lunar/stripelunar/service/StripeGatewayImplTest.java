@@ -0,0 +1,87 @@
+package com.lunar.stripelunar.service;
+
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.model.CustomerCollection;
+import com.stripe.param.CustomerListParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripeGatewayImplTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private StripeGatewayImpl gateway;
+    private CustomerListParams params;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new StripeGatewayImpl(meterRegistry, 2, Duration.ZERO);
+        params = CustomerListParams.builder().setLimit(100L).build();
+    }
+
+    @Test
+    void call_WhenThrottledOnce_ShouldRetryAndCountThrottle() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        CustomerCollection page = new CustomerCollection();
+        page.setData(List.of());
+
+        // Act
+        CustomerCollection result = gateway.call("customers", "list", params, () -> {
+            if (attempts.getAndIncrement() == 0) {
+                throw rateLimited();
+            }
+            return page;
+        });
+
+        // Assert
+        assertSame(page, result);
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.get("stripe.api.throttled").tag("resource", "customers").counter().count());
+        assertEquals(1.0, meterRegistry.get("stripe.api.retries").tag("reason", "throttled").counter().count());
+        assertEquals(1, meterRegistry.get("stripe.api.requests").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("stripe.api.requests").tag("outcome", "throttled").timer().count());
+        assertEquals(0.0, meterRegistry.get("stripe.api.inflight").gauge().value());
+    }
+
+    @Test
+    void call_WhenThrottledBeyondRetries_ShouldRethrow() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(RateLimitException.class, () -> gateway.call("customers", "list", params, () -> {
+            attempts.incrementAndGet();
+            throw rateLimited();
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(3.0, meterRegistry.get("stripe.api.throttled").counter().count());
+    }
+
+    @Test
+    void call_WhenRequestInvalid_ShouldNotRetry() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> gateway.call("customers", "list", params, () -> {
+            attempts.incrementAndGet();
+            throw new InvalidRequestException("bad limit", "limit", "req_1", null, 400, null);
+        }));
+        assertEquals(1, attempts.get());
+        assertTrue(meterRegistry.find("stripe.api.retries").counters().isEmpty());
+        assertEquals(1, meterRegistry.get("stripe.api.request.bytes").summary().count());
+    }
+
+    private RateLimitException rateLimited() {
+        return new RateLimitException("Too many requests", null, "req_1", "rate_limit", 429, null);
+    }
+}
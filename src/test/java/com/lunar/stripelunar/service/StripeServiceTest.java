@@ -1,24 +1,52 @@
 package com.lunar.stripelunar.service;
 
+import com.lunar.stripelunar.cache.CustomerSearchIndex;
+import com.lunar.stripelunar.cache.DataVersionTracker;
+import com.lunar.stripelunar.cache.StripeEntityCache;
+import com.lunar.stripelunar.exception.ResourceNotFoundException;
+import com.lunar.stripelunar.model.BulkFetchResult;
 import com.lunar.stripelunar.model.Customer;
+import com.lunar.stripelunar.model.CustomerCurrencyTotal;
+import com.lunar.stripelunar.model.CustomerPaymentsPage;
+import com.lunar.stripelunar.model.CustomerSummary;
+import com.lunar.stripelunar.model.CustomerWithPayments;
 import com.lunar.stripelunar.model.Payment;
+import com.lunar.stripelunar.model.PaymentOwner;
+import com.lunar.stripelunar.model.PaymentSearchCriteria;
+import com.lunar.stripelunar.model.PaymentSearchCursor;
+import com.lunar.stripelunar.model.PaymentSearchPage;
+import com.lunar.stripelunar.model.PaymentSummary;
 import com.lunar.stripelunar.repository.CustomerRepository;
 import com.lunar.stripelunar.repository.PaymentRepository;
+import com.stripe.model.Charge;
+import com.stripe.model.ChargeCollection;
+import com.stripe.model.CustomerCollection;
+import com.stripe.param.ChargeListParams;
+import com.stripe.param.CustomerListParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,14 +58,22 @@ public class StripeServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
 
-    @InjectMocks
+    @Mock
+    private StripeGateway stripeGateway;
+
     private StripeServiceImpl stripeService;
+    private DataVersionTracker dataVersionTracker;
 
     private Customer testCustomer;
     private Payment testPayment;
 
     @BeforeEach
     void setUp() {
+        StripeEntityCache entityCache = new StripeEntityCache(100, 100, 100, Duration.ofMinutes(5));
+        dataVersionTracker = new DataVersionTracker(customerRepository, paymentRepository, entityCache, 100, 100, 100);
+        stripeService = new StripeServiceImpl(customerRepository, paymentRepository, stripeGateway, entityCache,
+                dataVersionTracker, new CustomerSearchIndex(customerRepository), new SimpleMeterRegistry());
+
         // Setup test data
         testCustomer = new Customer();
         testCustomer.setId("cus_test123");
@@ -148,4 +184,394 @@ public class StripeServiceTest {
         assertEquals(expectedPayments, actualPayments);
         verify(paymentRepository, times(1)).findByCustomerId(customerId);
     }
+
+    @Test
+    void countCustomers_ShouldLoadCountFromDatabaseOnlyOnce() {
+        // Arrange
+        when(customerRepository.count()).thenReturn(42L);
+
+        // Act
+        long firstCount = stripeService.countCustomers();
+        long secondCount = stripeService.countCustomers();
+
+        // Assert
+        assertEquals(42L, firstCount);
+        assertEquals(42L, secondCount);
+        verify(customerRepository, times(1)).count();
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void countPayments_ShouldLoadCountFromDatabaseOnlyOnce() {
+        // Arrange
+        when(paymentRepository.count()).thenReturn(7L);
+
+        // Act
+        long firstCount = stripeService.countPayments();
+        long secondCount = stripeService.countPayments();
+
+        // Assert
+        assertEquals(7L, firstCount);
+        assertEquals(7L, secondCount);
+        verify(paymentRepository, times(1)).count();
+        verify(paymentRepository, never()).findAll();
+    }
+
+    @Test
+    void countCustomers_WhenRefreshIntervalPassed_ShouldReloadFromDatabase() {
+        // Arrange
+        ReflectionTestUtils.setField(stripeService, "countRefreshMillis", 0L);
+        when(customerRepository.count()).thenReturn(42L, 40L);
+
+        // Act
+        long firstCount = stripeService.countCustomers();
+        long secondCount = stripeService.countCustomers();
+
+        // Assert
+        assertEquals(42L, firstCount);
+        assertEquals(40L, secondCount);
+        verify(customerRepository, times(2)).count();
+    }
+
+    @Test
+    void syncCustomers_WhenCountLoaded_ShouldAddInsertedRowsWithoutReloading() throws Exception {
+        // Arrange
+        when(customerRepository.count()).thenReturn(42L);
+        stripeService.countCustomers();
+        when(stripeGateway.listCustomers(any(CustomerListParams.class))).thenReturn(customerPage(false, "cus_1", "cus_2"));
+        when(customerRepository.findExistingIds(anyList())).thenReturn(List.of("cus_1"));
+
+        // Act
+        stripeService.syncCustomers();
+
+        // Assert
+        assertEquals(43L, stripeService.countCustomers());
+        verify(customerRepository, times(1)).count();
+    }
+
+    @Test
+    void getCustomer_WhenFound_ShouldStartIssuingETagsForIt() {
+        // Arrange
+        when(customerRepository.findById("cus_test123")).thenReturn(Optional.of(testCustomer));
+        when(customerRepository.findById("cus_missing")).thenReturn(Optional.empty());
+
+        // Act
+        stripeService.getCustomer("cus_test123");
+        assertThrows(ResourceNotFoundException.class, () -> stripeService.getCustomer("cus_missing"));
+
+        // Assert
+        assertNotNull(dataVersionTracker.customerETag("cus_test123"));
+        assertNull(dataVersionTracker.customerETag("cus_missing"));
+    }
+
+    @Test
+    void getCustomer_WhenCalledRepeatedly_ShouldServeFromCache() {
+        // Arrange
+        String customerId = "cus_test123";
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(testCustomer));
+
+        // Act
+        Customer first = stripeService.getCustomer(customerId);
+        Customer second = stripeService.getCustomer(customerId);
+
+        // Assert
+        assertEquals(testCustomer, first);
+        assertEquals(testCustomer, second);
+        verify(customerRepository, times(1)).findById(customerId);
+    }
+
+    @Test
+    void getCustomer_WhenCustomerDoesNotExist_ShouldNotCacheMiss() {
+        // Arrange
+        String customerId = "cus_nonexistent";
+        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> stripeService.getCustomer(customerId));
+        assertThrows(RuntimeException.class, () -> stripeService.getCustomer(customerId));
+        verify(customerRepository, times(2)).findById(customerId);
+    }
+
+    @Test
+    void getPaymentsByCustomer_WhenCalledRepeatedly_ShouldServeFromCache() {
+        // Arrange
+        String customerId = "cus_test123";
+        when(paymentRepository.findByCustomerId(customerId)).thenReturn(Arrays.asList(testPayment));
+
+        // Act
+        stripeService.getPaymentsByCustomer(customerId);
+        List<Payment> cachedPayments = stripeService.getPaymentsByCustomer(customerId);
+
+        // Assert
+        assertEquals(1, cachedPayments.size());
+        verify(paymentRepository, times(1)).findByCustomerId(customerId);
+    }
+
+    @Test
+    void getCustomerSummaries_ShouldUseSummaryProjection() {
+        // Arrange
+        List<CustomerSummary> expectedSummaries = Arrays.asList(CustomerSummary.from(testCustomer));
+        when(customerRepository.findAllSummaries()).thenReturn(expectedSummaries);
+
+        // Act
+        List<CustomerSummary> actualSummaries = stripeService.getCustomerSummaries();
+
+        // Assert
+        assertEquals(expectedSummaries, actualSummaries);
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void getPaymentSummariesByCustomer_ShouldUseSummaryProjection() {
+        // Arrange
+        String customerId = "cus_test123";
+        List<PaymentSummary> expectedSummaries = Arrays.asList(PaymentSummary.from(testPayment));
+        when(paymentRepository.findSummariesByCustomerId(customerId)).thenReturn(expectedSummaries);
+
+        // Act
+        List<PaymentSummary> actualSummaries = stripeService.getPaymentSummariesByCustomer(customerId);
+
+        // Assert
+        assertEquals(expectedSummaries, actualSummaries);
+        verify(paymentRepository, never()).findByCustomerId(customerId);
+    }
+
+    @Test
+    void searchPayments_WhenMoreRowsThanLimit_ShouldReturnNextCursor() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2024, 1, 15, 10, 0);
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.fromQuery("succeeded", "USD", null,
+                "2024-01-01", "2024-02-01", null, "2");
+        when(paymentRepository.search(criteria, 3)).thenReturn(Arrays.asList(
+                summary("py_3", created.plusHours(2)),
+                summary("py_2", created.plusHours(1)),
+                summary("py_1", created)));
+
+        // Act
+        PaymentSearchPage page = stripeService.searchPayments(criteria);
+
+        // Assert
+        assertEquals("usd", criteria.currency());
+        assertEquals(2, page.payments().size());
+        assertEquals(new PaymentSearchCursor(created.plusHours(1), "py_2"),
+                PaymentSearchCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void searchPayments_WhenPageEndsOnPaymentWithoutCreatedDate_ShouldReturnUsableCursor() {
+        // Arrange
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.fromQuery(null, null, null,
+                null, null, null, "1");
+        when(paymentRepository.search(criteria, 2)).thenReturn(Arrays.asList(
+                summary("py_2", null),
+                summary("py_1", null)));
+
+        // Act
+        PaymentSearchPage page = stripeService.searchPayments(criteria);
+
+        // Assert
+        assertEquals(new PaymentSearchCursor(null, "py_2"), PaymentSearchCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void searchPayments_WhenLastPage_ShouldNotReturnCursor() {
+        // Arrange
+        PaymentSearchCriteria criteria = PaymentSearchCriteria.fromQuery(null, null, "cus_test123",
+                null, null, null, "5000");
+        when(paymentRepository.search(criteria, 1001)).thenReturn(Arrays.asList(PaymentSummary.from(testPayment)));
+
+        // Act
+        PaymentSearchPage page = stripeService.searchPayments(criteria);
+
+        // Assert
+        assertEquals(1000, page.limit());
+        assertEquals(1, page.payments().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getCustomersByEmail_ShouldQueryNormalizedEmail() {
+        // Arrange
+        when(customerRepository.findByNormalizedEmail("test@example.com")).thenReturn(Arrays.asList(testCustomer));
+
+        // Act
+        List<Customer> customers = stripeService.getCustomersByEmail("  Test@Example.COM ");
+
+        // Assert
+        assertEquals(1, customers.size());
+        assertEquals("cus_test123", customers.get(0).getId());
+    }
+
+    @Test
+    void searchCustomers_ShouldFindCustomersWrittenBySync() {
+        // Arrange
+        CustomerSearchIndex index = new CustomerSearchIndex(customerRepository);
+        index.customersWritten(Arrays.asList(testCustomer));
+        StripeEntityCache entityCache = new StripeEntityCache(100, 100, 100, Duration.ofMinutes(5));
+        stripeService = new StripeServiceImpl(customerRepository, paymentRepository, stripeGateway, entityCache,
+                new DataVersionTracker(customerRepository, paymentRepository, entityCache, 100, 100, 100), index,
+                new SimpleMeterRegistry());
+
+        // Act
+        List<CustomerSummary> matches = stripeService.searchCustomers("test", 0);
+
+        // Assert
+        assertEquals(1, matches.size());
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void getCustomersWithPayments_ShouldAssembleGroupedTotalsAndRecentPayments() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2024, 1, 15, 10, 0);
+        CustomerSummary first = CustomerSummary.from(testCustomer);
+        CustomerSummary second = new CustomerSummary("cus_other", "other@example.com", "Other", created, created, false);
+        when(customerRepository.findSummaryPage(PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(first, second), PageRequest.of(0, 2), true));
+        when(paymentRepository.findTotalsByCustomerIds(Arrays.asList("cus_test123", "cus_other")))
+                .thenReturn(Arrays.asList(
+                        new CustomerCurrencyTotal("cus_test123", "usd", 3L, new BigDecimal("30.00"))));
+        when(paymentRepository.findRecentSummariesByCustomerIds(Arrays.asList("cus_test123", "cus_other"), 2))
+                .thenReturn(Arrays.asList(
+                        summary("py_3", created.plusHours(2)),
+                        summary("py_2", created.plusHours(1))));
+
+        // Act
+        CustomerPaymentsPage page = stripeService.getCustomersWithPayments(0, 2, 2);
+
+        // Assert
+        assertEquals(2, page.customers().size());
+        assertEquals(true, page.hasNext());
+        CustomerWithPayments withPayments = page.customers().get(0);
+        assertEquals(3, withPayments.paymentCount());
+        assertEquals(Arrays.asList("py_3", "py_2"), withPayments.recentPayments().stream().map(PaymentSummary::id).toList());
+        assertEquals(new BigDecimal("30.00"), withPayments.totalsByCurrency().get("usd"));
+        assertEquals(0, page.customers().get(1).paymentCount());
+        verify(paymentRepository, never()).findSummariesByCustomerId(anyString());
+    }
+
+    @Test
+    void getCustomersWithPayments_WhenRecentTooLarge_ShouldClampPerCustomerLimit() {
+        // Arrange
+        CustomerSummary customer = CustomerSummary.from(testCustomer);
+        when(customerRepository.findSummaryPage(PageRequest.of(0, 50)))
+                .thenReturn(new SliceImpl<>(List.of(customer), PageRequest.of(0, 50), false));
+
+        // Act
+        stripeService.getCustomersWithPayments(0, 0, 10_000);
+
+        // Assert
+        verify(paymentRepository).findRecentSummariesByCustomerIds(List.of("cus_test123"), 20);
+    }
+
+    @Test
+    void getPayments_ShouldServeCacheHitsAndKeepRequestOrder() {
+        // Arrange
+        when(paymentRepository.findById("pay_test123")).thenReturn(Optional.of(testPayment));
+        stripeService.getPayment("pay_test123");
+        Payment other = new Payment();
+        other.setId("py_other");
+        when(paymentRepository.findAllById(anyIterable())).thenReturn(Arrays.asList(other));
+
+        // Act
+        BulkFetchResult<Payment> result = stripeService.getPayments(Arrays.asList("py_missing", "pay_test123", "py_other"));
+
+        // Assert
+        assertEquals(Arrays.asList("py_missing", "pay_test123", "py_other"),
+                result.results().stream().map(BulkFetchResult.Item::id).toList());
+        assertEquals(false, result.results().get(0).found());
+        assertEquals(testPayment, result.results().get(1).data());
+        assertEquals(2, result.found());
+        assertEquals(1, result.notFound());
+        verify(paymentRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void getCustomers_WhenTooManyIds_ShouldThrowException() {
+        // Arrange
+        List<String> ids = IntStream.range(0, 1001).mapToObj(i -> "cus_" + i).toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> stripeService.getCustomers(ids));
+        verifyNoInteractions(customerRepository);
+    }
+
+    private PaymentSummary summary(String id, LocalDateTime createdDate) {
+        return new PaymentSummary(id, "cus_test123", new BigDecimal("10.00"), "usd", "succeeded", createdDate, createdDate);
+    }
+
+    @Test
+    void syncCustomers_WhenMorePagesWithinBudget_ShouldPageThroughGateway() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(stripeService, "syncMaxPages", 2);
+        when(stripeGateway.listCustomers(any(CustomerListParams.class)))
+                .thenReturn(customerPage(true, "cus_1", "cus_2"))
+                .thenReturn(customerPage(false, "cus_3"));
+        when(customerRepository.findExistingIds(anyList())).thenReturn(List.of());
+
+        // Act
+        List<Customer> synced = stripeService.syncCustomers();
+
+        // Assert
+        assertEquals(List.of("cus_1", "cus_2", "cus_3"), synced.stream().map(Customer::getId).toList());
+        ArgumentCaptor<CustomerListParams> params = ArgumentCaptor.forClass(CustomerListParams.class);
+        verify(stripeGateway, times(2)).listCustomers(params.capture());
+        assertNull(params.getAllValues().get(0).getStartingAfter());
+        assertEquals("cus_2", params.getAllValues().get(1).getStartingAfter());
+        verify(customerRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void syncCustomers_WhenPageBudgetSpent_ShouldStopDespiteHasMore() throws Exception {
+        // Arrange
+        when(stripeGateway.listCustomers(any(CustomerListParams.class))).thenReturn(customerPage(true, "cus_1"));
+        when(customerRepository.findExistingIds(anyList())).thenReturn(List.of("cus_1"));
+
+        // Act
+        List<Customer> synced = stripeService.syncCustomers();
+
+        // Assert
+        assertEquals(1, synced.size());
+        verify(stripeGateway, times(1)).listCustomers(any(CustomerListParams.class));
+    }
+
+    @Test
+    void syncPayments_WhenPaymentMovedCustomer_ShouldInvalidatePreviousOwnersPayments() throws Exception {
+        // Arrange
+        Payment moved = new Payment();
+        moved.setId("py_1");
+        moved.setCustomerId("cus_old");
+        when(paymentRepository.findByCustomerId("cus_old")).thenReturn(List.of(moved), List.of());
+        stripeService.getPaymentsByCustomer("cus_old");
+        Charge charge = new Charge();
+        charge.setId("py_1");
+        charge.setCustomer("cus_new");
+        charge.setAmount(1000L);
+        ChargeCollection page = new ChargeCollection();
+        page.setData(List.of(charge));
+        page.setHasMore(false);
+        when(stripeGateway.listCharges(any(ChargeListParams.class))).thenReturn(page);
+        when(paymentRepository.findOwnersByIds(anyList())).thenReturn(List.of(new PaymentOwner("py_1", "cus_old")));
+
+        // Act
+        stripeService.syncPayments();
+        List<Payment> oldOwnerPayments = stripeService.getPaymentsByCustomer("cus_old");
+
+        // Assert
+        assertTrue(oldOwnerPayments.isEmpty());
+        verify(paymentRepository, times(2)).findByCustomerId("cus_old");
+    }
+
+    private CustomerCollection customerPage(boolean hasMore, String... ids) {
+        CustomerCollection page = new CustomerCollection();
+        page.setHasMore(hasMore);
+        page.setData(Arrays.stream(ids).map(id -> {
+            com.stripe.model.Customer customer = new com.stripe.model.Customer();
+            customer.setId(id);
+            customer.setEmail(id + "@example.com");
+            customer.setCreated(1_700_000_000L);
+            return customer;
+        }).toList());
+        return page;
+    }
 }
@@ -0,0 +1,98 @@
+package com.lunar.stripelunar.service;
+
+import com.lunar.stripelunar.model.SyncStageTimings;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SyncJobContextTest {
+
+    @Test
+    void current_WhileJobOpen_ShouldAccumulateIntoJobContext() {
+        // Arrange
+        SyncStageTimings timings;
+
+        // Act
+        try (SyncJobContext job = SyncJobContext.open()) {
+            SyncJobContext.current().recordApiCall(TimeUnit.MILLISECONDS.toNanos(150), 2048);
+            SyncJobContext.current().recordApiCall(TimeUnit.MILLISECONDS.toNanos(50), 1024);
+            SyncJobContext.current().recordMapping(TimeUnit.MILLISECONDS.toNanos(5));
+            SyncJobContext.current().recordBatchWrite(TimeUnit.MILLISECONDS.toNanos(80), 100);
+            SyncJobContext.current().recordCommit(TimeUnit.MILLISECONDS.toNanos(10));
+            timings = job.snapshot();
+        }
+
+        // Assert
+        assertEquals(new SyncStageTimings(200, 5, 80, 10, 2, 3072, 1), timings);
+    }
+
+    @Test
+    void current_AfterJobClosed_ShouldReturnDetachedContext() {
+        // Arrange
+        SyncJobContext job = SyncJobContext.open();
+        job.close();
+
+        // Act
+        SyncJobContext.current().recordApiCall(TimeUnit.MILLISECONDS.toNanos(100), 512);
+
+        // Assert
+        assertEquals(0, job.snapshot().apiCalls());
+    }
+
+    @Test
+    void remainingNanos_WhileMorePagesInBudget_ShouldExtrapolateAveragePageTime() throws InterruptedException {
+        // Arrange
+        SyncJobContext job = SyncJobContext.open();
+        job.beginResource("customers", 5);
+        Thread.sleep(20);
+        job.recordPage(true);
+
+        // Act
+        long remaining = job.remainingNanos(System.nanoTime());
+        job.close();
+
+        // Assert
+        assertTrue(remaining >= 4 * TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, job.pagesFetched());
+        assertTrue(job.hasMore());
+    }
+
+    @Test
+    void remainingNanos_BeforeFirstPageOrAfterLast_ShouldBeUnknownThenZero() {
+        // Arrange
+        SyncJobContext job = SyncJobContext.open();
+        job.beginResource("charges", 3);
+
+        // Act
+        long beforeFirstPage = job.remainingNanos(System.nanoTime());
+        job.recordPage(false);
+        long afterLastPage = job.remainingNanos(System.nanoTime());
+        job.close();
+
+        // Assert
+        assertEquals(-1, beforeFirstPage);
+        assertEquals(0, afterLastPage);
+    }
+
+    @Test
+    void recordsPerSecond_ShouldDecayOnceWritesStop() {
+        // Arrange
+        SyncJobContext job = SyncJobContext.open();
+        job.enterStage(SyncJobContext.Stage.DB_WRITE);
+        job.recordBatchWrite(TimeUnit.MILLISECONDS.toNanos(5), 100);
+        long now = System.nanoTime();
+
+        // Act
+        double recentRate = job.recordsPerSecond(now + TimeUnit.SECONDS.toNanos(1));
+        double staleRate = job.recordsPerSecond(now + TimeUnit.MINUTES.toNanos(2));
+        job.close();
+
+        // Assert
+        assertTrue(recentRate > 50 && recentRate <= 100);
+        assertEquals(0.0, staleRate);
+        assertEquals(100, job.recordsWritten());
+        assertEquals(SyncJobContext.Stage.DB_WRITE, job.stage());
+    }
+}
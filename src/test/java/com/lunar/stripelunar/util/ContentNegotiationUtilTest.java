@@ -0,0 +1,30 @@
+package com.lunar.stripelunar.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentNegotiationUtilTest {
+
+    @Test
+    void accepts_WhenTokenListedWithParameters_ShouldMatchIgnoringCase() {
+        // Act & Assert
+        assertTrue(ContentNegotiationUtil.accepts("br, GZIP;q=0.8, deflate", "gzip"));
+        assertTrue(ContentNegotiationUtil.accepts("application/cbor", "application/cbor"));
+    }
+
+    @Test
+    void accepts_WhenTokenRefusedWithZeroQuality_ShouldReturnFalse() {
+        // Act & Assert
+        assertFalse(ContentNegotiationUtil.accepts("deflate, gzip;q=0", "gzip"));
+        assertFalse(ContentNegotiationUtil.accepts("gzip; q=0.0", "gzip"));
+    }
+
+    @Test
+    void accepts_WhenHeaderMissingOrTokenAbsent_ShouldReturnFalse() {
+        // Act & Assert
+        assertFalse(ContentNegotiationUtil.accepts(null, "gzip"));
+        assertFalse(ContentNegotiationUtil.accepts("deflate", "gzip"));
+        assertFalse(ContentNegotiationUtil.accepts("x-gzip", "gzip"));
+    }
+}
@@ -132,4 +132,19 @@ public class CsvExportUtilTest {
         assertEquals(1, lines.length);
         assertTrue(lines[0].contains("Job ID,Job Name,Start Time,End Time,Status,Records Processed,Duration (seconds),Error Message"));
     }
+
+    @Test
+    void exportJobHistoryToCsv_WithStream_ShouldWriteEveryRowAndReturnCount() throws Exception {
+        // Arrange
+        StringWriter stringWriter = new StringWriter();
+        
+        // Act
+        long rows = csvExportUtil.exportJobHistoryToCsv(testJobs.stream(), stringWriter);
+        
+        // Assert
+        assertEquals(3, rows);
+        String[] lines = stringWriter.toString().split("\n");
+        assertEquals(4, lines.length); // Header + 3 jobs
+        assertTrue(lines[1].startsWith("1,syncCustomers,"));
+    }
 }
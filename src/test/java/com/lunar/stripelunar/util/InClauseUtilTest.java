@@ -0,0 +1,42 @@
+package com.lunar.stripelunar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InClauseUtilTest {
+
+    @Test
+    void queryInChunks_WhenMoreThanLimit_ShouldSplitIntoChunksWithinLimit() {
+        // Arrange
+        List<Integer> values = IntStream.range(0, 2500).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        // Act
+        List<Integer> results = InClauseUtil.queryInChunks(values, chunk -> {
+            chunkSizes.add(chunk.size());
+            return chunk;
+        });
+
+        // Assert
+        assertEquals(List.of(1000, 1000, 500), chunkSizes);
+        assertEquals(values, results);
+    }
+
+    @Test
+    void queryInChunks_WhenEmpty_ShouldNotQuery() {
+        // Act
+        List<String> results = InClauseUtil.queryInChunks(Collections.<String>emptyList(), chunk -> {
+            fail("Query should not run for an empty IN list");
+            return chunk;
+        });
+
+        // Assert
+        assertTrue(results.isEmpty());
+    }
+}
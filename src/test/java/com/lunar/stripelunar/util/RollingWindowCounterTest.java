@@ -0,0 +1,84 @@
+package com.lunar.stripelunar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RollingWindowCounterTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void sum_ShouldOnlyCountEventsInsideWindow() {
+        // Arrange
+        RollingWindowCounter counter = new RollingWindowCounter(Duration.ofMinutes(15), Duration.ofSeconds(5));
+        counter.add(10, NOW - TimeUnit.MINUTES.toMillis(10));
+        counter.add(5, NOW - TimeUnit.MINUTES.toMillis(3));
+        counter.add(2, NOW);
+
+        // Act & Assert
+        assertEquals(2, counter.sum(Duration.ofMinutes(1), NOW));
+        assertEquals(7, counter.sum(Duration.ofMinutes(5), NOW));
+        assertEquals(17, counter.sum(Duration.ofMinutes(15), NOW));
+        assertEquals(0, counter.sum(Duration.ofMinutes(15), NOW + TimeUnit.MINUTES.toMillis(20)));
+    }
+
+    @Test
+    void add_WhenSlotRollsOver_ShouldDropStaleBucket() {
+        // Arrange
+        RollingWindowCounter counter = new RollingWindowCounter(Duration.ofSeconds(10), Duration.ofSeconds(5));
+        counter.add(100, NOW);
+
+        // Act
+        counter.add(1, NOW + TimeUnit.SECONDS.toMillis(10));
+
+        // Assert
+        assertEquals(1, counter.sum(Duration.ofSeconds(10), NOW + TimeUnit.SECONDS.toMillis(10)));
+    }
+
+    @Test
+    void ratePerSecond_ShouldAverageOverWindow() {
+        // Arrange
+        RollingWindowCounter counter = new RollingWindowCounter(Duration.ofMinutes(15), Duration.ofSeconds(5));
+        counter.add(120, NOW);
+
+        // Act & Assert
+        assertEquals(2.0, counter.ratePerSecond(Duration.ofMinutes(1), NOW), 0.001);
+    }
+
+    @Test
+    void add_FromManyThreads_ShouldNotLoseIncrements() throws InterruptedException {
+        // Arrange
+        RollingWindowCounter counter = new RollingWindowCounter(Duration.ofMinutes(1), Duration.ofSeconds(1));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.add(1, NOW + i % 3_000);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Assert
+        assertEquals(80_000, counter.sum(Duration.ofMinutes(1), NOW + 3_000));
+    }
+
+    @Test
+    void constructor_WhenSpanNotMultipleOfBucket_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new RollingWindowCounter(Duration.ofSeconds(7), Duration.ofSeconds(5)));
+    }
+}
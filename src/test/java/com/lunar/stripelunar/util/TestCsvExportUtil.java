@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Test implementation of CsvExportUtil for testing purposes
@@ -18,7 +19,8 @@ public class TestCsvExportUtil extends CsvExportUtil {
     private List<ETLJobHistory> lastExportedJobs;
     
     @Override
-    public void exportJobHistoryToCsv(List<ETLJobHistory> jobs, Writer writer) throws IOException {
+    public long exportJobHistoryToCsv(Stream<ETLJobHistory> jobStream, Writer writer) throws IOException {
+        List<ETLJobHistory> jobs = jobStream.toList();
         this.exportCalled = true;
         this.lastExportedJobs = jobs;
         
@@ -33,6 +35,7 @@ public class TestCsvExportUtil extends CsvExportUtil {
         }
         
         printWriter.flush();
+        return jobs.size();
     }
     
     public boolean wasExportCalled() {